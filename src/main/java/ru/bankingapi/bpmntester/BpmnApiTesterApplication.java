@@ -3,12 +3,14 @@ package ru.bankingapi.bpmntester;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.security.Security;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class BpmnApiTesterApplication {
 
     static {
@@ -0,0 +1,42 @@
+package ru.bankingapi.bpmntester.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@Slf4j
+public class DataSourcePoolConfig {
+
+    /**
+     * Size the Hikari pool from the application's own concurrency instead of Hikari's
+     * default of 10: every running test execution holds one connection for its
+     * transaction and briefly a second one for payload and rollup writes, and each
+     * import worker needs one. {@code spring.datasource.hikari.maximum-pool-size}
+     * still wins when set explicitly.
+     */
+    @Bean
+    static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                    && !environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                    int executions = environment.getProperty("test-execution.max-concurrent", Integer.class, 8);
+                    int importers = environment.getProperty("process-import.parallelism", Integer.class, 4);
+                    int reserve = environment.getProperty("persistence.pool-reserve", Integer.class, 4);
+                    int poolSize = executions * 2 + importers + reserve;
+
+                    dataSource.setMaximumPoolSize(poolSize);
+                    dataSource.setMinimumIdle(Math.min(poolSize, executions + reserve));
+                    log.info("Connection pool sized to {} ({} executions, {} import workers, {} reserve)",
+                        poolSize, executions, importers, reserve);
+                }
+                return bean;
+            }
+        };
+    }
+}
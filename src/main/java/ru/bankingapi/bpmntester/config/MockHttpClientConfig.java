@@ -0,0 +1,128 @@
+package ru.bankingapi.bpmntester.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+import ru.bankingapi.bpmntester.service.MockApiService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@Slf4j
+public class MockHttpClientConfig {
+
+    /**
+     * RestTemplate for MOCK mode: requests never leave the JVM and are
+     * answered by {@link MockApiService}
+     */
+    @Bean(name = "mockRestTemplate")
+    RestTemplate mockRestTemplate(MockApiService mockApiService) {
+        log.info("Mock RestTemplate configured (in-process transport)");
+        return new RestTemplate(new MockClientHttpRequestFactory(mockApiService));
+    }
+
+    private record MockClientHttpRequestFactory(MockApiService mockApiService) implements ClientHttpRequestFactory {
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+            return new MockClientHttpRequest(mockApiService, uri, httpMethod);
+        }
+    }
+
+    private static class MockClientHttpRequest implements ClientHttpRequest {
+
+        private final MockApiService mockApiService;
+        private final URI uri;
+        private final HttpMethod method;
+        private final HttpHeaders headers = new HttpHeaders();
+        private final Map<String, Object> attributes = new HashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        MockClientHttpRequest(MockApiService mockApiService, URI uri, HttpMethod method) {
+            this.mockApiService = mockApiService;
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public ClientHttpResponse execute() {
+            MockApiService.MockResponse response = mockApiService.handle(method.name(), uri.getPath());
+            return new MockClientHttpResponse(response);
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    private static class MockClientHttpResponse implements ClientHttpResponse {
+
+        private final MockApiService.MockResponse response;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        MockClientHttpResponse(MockApiService.MockResponse response) {
+            this.response = response;
+            this.headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatusCode.valueOf(response.status());
+        }
+
+        @Override
+        public String getStatusText() {
+            return "Mock " + response.status();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(response.body().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -1,37 +1,57 @@
 package ru.bankingapi.bpmntester.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import io.swagger.v3.oas.models.OpenAPI;
 import ru.bankingapi.bpmntester.domain.*;
 import ru.bankingapi.bpmntester.repository.*;
 import ru.bankingapi.bpmntester.service.*;
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1")
 @Slf4j
 @RequiredArgsConstructor
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = "X-Next-Cursor")
 public class BpmnApiTesterController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final BusinessProcessRepository processRepository;
     private final TestExecutionRepository executionRepository;
-    private final BpmnParserService bpmnParser;
     private final OpenApiParserService openApiParser;
     private final TestOrchestrator testOrchestrator;
-    private final SequenceDiagramParser sequenceParser;
     private final ReportExportService reportExportService;
     private final AiTestDataGenerator aiTestDataGenerator;
+    private final AiTemplateCache aiTemplateCache;
+    private final AiPregenerationService pregenerationService;
+    private final FallbackDataGenerator fallbackData;
+    private final OllamaClient ollamaClient;
+    private final MockApiService mockApiService;
+    private final HttpResponseCache responseCache;
+    private final ParseCacheService parseCache;
+    private final ProcessImportService processImportService;
+    private final ExecutionAnalyticsService analyticsService;
+    private final PayloadStore payloadStore;
+    private final RetentionService retentionService;
+    private final ExecutionLimiter executionLimiter;
+    private final TrafficCassetteService cassetteService;
 
     @Value("${ai.enabled:true}")
     private boolean aiEnabled;
@@ -44,14 +64,13 @@ public class BpmnApiTesterController {
     public ResponseEntity<?> uploadProcess(
         @RequestParam("bpmn") MultipartFile bpmnFile,
         @RequestParam(value = "name", required = false) String processName,
-        @RequestParam(required = false) List<MultipartFile> openApiSpecs
+        @RequestParam(required = false) List<MultipartFile> openApiSpecs,
+        @RequestParam(value = "validate", required = false) Boolean validate
     ) {
         try {
             log.info("Uploading BPMN process: {}", bpmnFile.getOriginalFilename());
 
-            String bpmnXml = new String(bpmnFile.getBytes(), StandardCharsets.UTF_8);
-            bpmnParser.validateBpmnXml(bpmnXml);
-            BusinessProcess process = bpmnParser.parseBpmnXml(bpmnXml, processName);
+            BusinessProcess process = processImportService.parseBpmn(bpmnFile.getBytes(), processName, validate);
             
             log.info("Parsed {} steps from BPMN", process.getSteps().size());
 
@@ -68,6 +87,7 @@ public class BpmnApiTesterController {
             
             // Force eager load within transaction
             int stepCount = process.getSteps().size();
+            pregenerationService.prefill(process);
             
             log.info("Process uploaded: id={}, steps={}", process.getId(), stepCount);
 
@@ -95,17 +115,12 @@ public class BpmnApiTesterController {
         try {
             log.info("Uploading sequence diagram: {}", sequenceFile.getOriginalFilename());
 
-            String diagramText = new String(sequenceFile.getBytes(), StandardCharsets.UTF_8);
-            sequenceParser.validateSequenceDiagram(diagramText);
-            BusinessProcess process = sequenceParser.parseSequenceDiagram(diagramText, processName);
-            
-            for (ProcessStep step : process.getSteps()) {
-                step.setBusinessProcess(process);
-            }
+            BusinessProcess process = processImportService.parseSequenceDiagram(sequenceFile.getBytes(), processName);
             
             process = processRepository.save(process);
             
             int stepCount = process.getSteps().size();
+            pregenerationService.prefill(process);
 
             log.info("Sequence uploaded: id={}, steps={}", process.getId(), stepCount);
 
@@ -124,30 +139,54 @@ public class BpmnApiTesterController {
         }
     }
 
+    @PostMapping("/processes/import")
+    public ResponseEntity<?> importProcesses(@RequestParam("archive") MultipartFile archive) {
+        try {
+            log.info("Importing process archive: {} ({} bytes)", archive.getOriginalFilename(), archive.getSize());
+            return ResponseEntity.ok(processImportService.importArchive(archive.getInputStream()));
+
+        } catch (Exception e) {
+            log.error("Archive import failed", e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
     @GetMapping("/processes")
     @Transactional(readOnly = true)
-    public ResponseEntity<List<Map<String, Object>>> getAllProcesses() {
-        List<BusinessProcess> processes = processRepository.findAll();
-        
-        List<Map<String, Object>> response = processes.stream()
+    public ResponseEntity<List<Map<String, Object>>> getAllProcesses(
+        @RequestParam(required = false) Long cursor,
+        @RequestParam(defaultValue = "100") int limit
+    ) {
+        int pageSize = pageSize(limit);
+        List<ProcessSummary> page = processRepository.findSummariesAfter(
+            cursor != null ? cursor : 0L, Limit.of(pageSize + 1)
+        );
+        boolean hasMore = page.size() > pageSize;
+        if (hasMore) {
+            page = page.subList(0, pageSize);
+        }
+
+        List<Map<String, Object>> response = page.stream()
             .map(p -> {
                 Map<String, Object> processMap = new HashMap<>();
                 processMap.put("id", p.getId());
                 processMap.put("name", p.getName());
                 processMap.put("description", p.getDescription());
-                processMap.put("steps", p.getSteps().size());
+                processMap.put("steps", p.getStepCount());
                 processMap.put("createdAt", p.getCreatedAt().toString());
                 return processMap;
             })
             .collect(Collectors.toList());
 
-        return ResponseEntity.ok(response);
+        return withNextCursor(response, hasMore ? page.get(page.size() - 1).getId() : null);
     }
 
     @GetMapping("/processes/{id}")
     @Transactional(readOnly = true)
     public ResponseEntity<?> getProcess(@PathVariable Long id) {
-        Optional<BusinessProcess> process = processRepository.findById(id);
+        Optional<BusinessProcess> process = processRepository.findByIdWithSteps(id);
         
         if (process.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -159,7 +198,8 @@ public class BpmnApiTesterController {
         response.put("id", p.getId());
         response.put("name", p.getName());
         response.put("description", p.getDescription());
-        response.put("bpmnXml", p.getBpmnXml());
+        // The diagram itself is served by getProcessBpmn
+        response.put("bpmnUrl", "/api/v1/processes/" + p.getId() + "/bpmn");
         response.put("createdAt", p.getCreatedAt().toString());
         
         List<Map<String, Object>> stepsList = p.getSteps().stream()
@@ -179,31 +219,47 @@ public class BpmnApiTesterController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/processes/{id}/bpmn", produces = MediaType.APPLICATION_XML_VALUE)
+    @Transactional(readOnly = true)
+    public ResponseEntity<String> getProcessBpmn(@PathVariable Long id) {
+        return processRepository.findBpmnXmlById(id)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/processes/{id}/execute")
-    @Transactional
     public ResponseEntity<?> executeTest(
         @PathVariable Long id,
         @RequestBody TestExecutionRequest request
     ) {
         try {
-            Optional<BusinessProcess> process = processRepository.findById(id);
-            
-            if (process.isEmpty()) {
-                return ResponseEntity.notFound().build();
-            }
+            return executionLimiter.inTransaction(() -> {
+                Optional<BusinessProcess> process = processRepository.findByIdWithSteps(id);
+
+                if (process.isEmpty()) {
+                    return ResponseEntity.notFound().build();
+                }
 
-            log.info("Executing test for process {} in {} mode", id, request.getMode());
+                if (request.getCassetteMode() == CassetteMode.REPLAY && !cassetteService.hasCassette(id)) {
+                    return ResponseEntity.badRequest().body(Map.of("error", "No cassette recorded for process " + id));
+                }
 
-            TestExecution execution = testOrchestrator.executeProcess(
-                process.get(),
-                request.getMode() != null ? request.getMode() : ExecutionMode.STANDARD,
-                request.getInitialContext() != null ? request.getInitialContext() : new HashMap<>(),
-                request.isGenerateTestData()
-            );
+                log.info("Executing test for process {} in {} mode", id, request.getMode());
 
-            TestExecutionResponse response = buildExecutionResponse(execution);
-            return ResponseEntity.ok(response);
+                TestExecution execution = testOrchestrator.executeProcess(
+                    process.get(),
+                    request.getMode() != null ? request.getMode() : ExecutionMode.STANDARD,
+                    request.getInitialContext() != null ? request.getInitialContext() : new HashMap<>(),
+                    request.isGenerateTestData(),
+                    request.getCassetteMode() != null ? request.getCassetteMode() : CassetteMode.OFF,
+                    request.getDataSeed()
+                );
+
+                return ResponseEntity.ok(buildExecutionResponse(execution));
+            });
 
+        } catch (ExecutionLimiter.BusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             log.error("Execution failed", e);
             Map<String, Object> errorResponse = new HashMap<>();
@@ -212,10 +268,30 @@ public class BpmnApiTesterController {
         }
     }
 
+    @PutMapping("/processes/{id}/response-cache")
+    @Transactional
+    public ResponseEntity<?> setProcessResponseCache(
+        @PathVariable Long id,
+        @RequestParam(value = "enabled", required = false) Boolean enabled
+    ) {
+        Optional<BusinessProcess> process = processRepository.findById(id);
+
+        if (process.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        process.get().setResponseCacheEnabled(enabled);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", id);
+        response.put("responseCacheEnabled", responseCache.isEnabledFor(process.get()));
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/executions/{id}")
     @Transactional(readOnly = true)
     public ResponseEntity<?> getExecution(@PathVariable Long id) {
-        Optional<TestExecution> execution = executionRepository.findById(id);
+        Optional<TestExecution> execution = executionRepository.findWithResultsById(id);
         
         if (execution.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -227,11 +303,21 @@ public class BpmnApiTesterController {
 
     @GetMapping("/processes/{id}/executions")
     @Transactional(readOnly = true)
-    public ResponseEntity<List<Map<String, Object>>> getProcessExecutions(@PathVariable Long id) {
-        List<TestExecution> executions = executionRepository
-            .findByBusinessProcessIdOrderByStartedAtDesc(id);
+    public ResponseEntity<List<Map<String, Object>>> getProcessExecutions(
+        @PathVariable Long id,
+        @RequestParam(required = false) Long cursor,
+        @RequestParam(defaultValue = "100") int limit
+    ) {
+        int pageSize = pageSize(limit);
+        List<ExecutionSummary> page = executionRepository.findSummariesBefore(
+            id, cursor != null ? cursor : Long.MAX_VALUE, Limit.of(pageSize + 1)
+        );
+        boolean hasMore = page.size() > pageSize;
+        if (hasMore) {
+            page = page.subList(0, pageSize);
+        }
 
-        List<Map<String, Object>> response = executions.stream()
+        List<Map<String, Object>> response = page.stream()
             .map(e -> {
                 Map<String, Object> execMap = new HashMap<>();
                 execMap.put("id", e.getId());
@@ -239,63 +325,90 @@ public class BpmnApiTesterController {
                 execMap.put("status", e.getStatus().toString());
                 execMap.put("startedAt", e.getStartedAt().toString());
                 execMap.put("completedAt", e.getCompletedAt() != null ? e.getCompletedAt().toString() : "");
-                execMap.put("stepsCompleted", e.getStepResults().size());
+                execMap.put("stepsCompleted", e.getStepCount());
                 return execMap;
             })
             .collect(Collectors.toList());
 
-        return ResponseEntity.ok(response);
+        return withNextCursor(response, hasMore ? page.get(page.size() - 1).getId() : null);
     }
 
     @GetMapping("/executions/{id}/export/html")
     @Transactional(readOnly = true)
-    public ResponseEntity<String> exportHtml(@PathVariable Long id) {
-        Optional<TestExecution> execution = executionRepository.findById(id);
-        
-        if (execution.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-
-        String html = reportExportService.exportToHtml(execution.get());
-        
-        return ResponseEntity.ok()
-            .header("Content-Type", "text/html; charset=UTF-8")
-            .header("Content-Disposition", "attachment; filename=report-" + id + ".html")
-            .body(html);
+    public void exportHtml(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "false") boolean gzip,
+        HttpServletResponse response
+    ) throws IOException {
+        streamReport(id, ReportFormat.HTML, gzip, response);
     }
 
     @GetMapping("/executions/{id}/export/csv")
     @Transactional(readOnly = true)
-    public ResponseEntity<String> exportCsv(@PathVariable Long id) {
-        Optional<TestExecution> execution = executionRepository.findById(id);
-        
-        if (execution.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-
-        String csv = reportExportService.exportToCsv(execution.get());
-        
-        return ResponseEntity.ok()
-            .header("Content-Type", "text/csv; charset=UTF-8")
-            .header("Content-Disposition", "attachment; filename=report-" + id + ".csv")
-            .body(csv);
+    public void exportCsv(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "false") boolean gzip,
+        HttpServletResponse response
+    ) throws IOException {
+        streamReport(id, ReportFormat.CSV, gzip, response);
     }
 
     @GetMapping("/executions/{id}/export/json")
     @Transactional(readOnly = true)
-    public ResponseEntity<String> exportJson(@PathVariable Long id) {
-        Optional<TestExecution> execution = executionRepository.findById(id);
-        
-        if (execution.isEmpty()) {
+    public void exportJson(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "false") boolean gzip,
+        HttpServletResponse response
+    ) throws IOException {
+        streamReport(id, ReportFormat.JSON, gzip, response);
+    }
+
+    @GetMapping("/processes/{id}/analytics")
+    public ResponseEntity<?> getProcessAnalytics(
+        @PathVariable Long id,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+        @RequestParam(defaultValue = "DAY") AnalyticsBucket bucket
+    ) {
+        if (!processRepository.existsById(id)) {
             return ResponseEntity.notFound().build();
         }
 
-        String json = reportExportService.exportToJson(execution.get());
-        
-        return ResponseEntity.ok()
-            .header("Content-Type", "application/json; charset=UTF-8")
-            .header("Content-Disposition", "attachment; filename=report-" + id + ".json")
-            .body(json);
+        try {
+            return ResponseEntity.ok(analyticsService.analyze(id, from, to, bucket));
+        } catch (Exception e) {
+            log.error("Failed to compute analytics for process {}", id, e);
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/processes/{id}/analytics/export/csv")
+    public void exportProcessAnalyticsCsv(
+        @PathVariable Long id,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+        @RequestParam(defaultValue = "DAY") AnalyticsBucket bucket,
+        @RequestParam(defaultValue = "false") boolean gzip,
+        HttpServletResponse response
+    ) throws IOException {
+        if (!processRepository.existsById(id)) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        ProcessAnalytics analytics = analyticsService.analyze(id, from, to, bucket);
+
+        response.setContentType(ReportFormat.CSV.getContentType());
+        response.setHeader("Content-Disposition", "attachment; filename=analytics-" + id + ".csv");
+
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+            try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 8192)) {
+                analyticsService.writeCsv(analytics, out);
+            }
+        } else {
+            analyticsService.writeCsv(analytics, response.getOutputStream());
+        }
     }
 
     @GetMapping("/ai/status")
@@ -322,6 +435,7 @@ public class BpmnApiTesterController {
         status.put("enabled", serviceAvailable);
         status.put("provider", effectiveProvider);
         status.put("fallbackAvailable", true); 
+        status.put("client", ollamaClient.getStats());
         
         return ResponseEntity.ok(status);
     }
@@ -363,6 +477,88 @@ public class BpmnApiTesterController {
         return ResponseEntity.ok(templates);
     }
 
+    @RequestMapping("/mock/**")
+    public ResponseEntity<String> mockApi(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(
+            request.getContextPath().length() + "/api/v1/mock".length()
+        );
+
+        MockApiService.MockResponse response = mockApiService.handle(request.getMethod(), path);
+
+        return ResponseEntity.status(response.status())
+            .header("Content-Type", "application/json; charset=UTF-8")
+            .body(response.body());
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("responseCache", responseCache.getStats());
+        stats.put("parseCache", parseCache.getStats());
+        stats.put("payloadStore", payloadStore.getStats());
+        stats.put("aiTemplates", aiTemplateCache.getStats());
+        stats.put("aiPregeneration", pregenerationService.getStats());
+        stats.put("fallbackData", fallbackData.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> clearCache() {
+        responseCache.clear();
+        aiTemplateCache.clear();
+        pregenerationService.clear();
+        fallbackData.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/retention/run")
+    public ResponseEntity<?> runRetention() {
+        try {
+            return ResponseEntity.ok(retentionService.run());
+        } catch (Exception e) {
+            log.error("Retention run failed", e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/archives")
+    public ResponseEntity<?> listArchives() {
+        try {
+            return ResponseEntity.ok(retentionService.listArchives());
+        } catch (Exception e) {
+            log.error("Failed to list archives", e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    @PostMapping("/archives/{name}/rehydrate")
+    public ResponseEntity<?> rehydrateArchive(
+        @PathVariable String name,
+        @RequestParam(value = "executionId", required = false) Set<Long> executionIds
+    ) {
+        try {
+            Map<Long, Long> restored = retentionService.rehydrate(
+                name, executionIds != null ? executionIds : Set.of()
+            );
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("archive", name);
+            response.put("rehydrated", restored.size());
+            response.put("executionIds", restored);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Rehydrate of {} failed", name, e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         Map<String, String> response = new HashMap<>();
@@ -372,25 +568,52 @@ public class BpmnApiTesterController {
         return ResponseEntity.ok(response);
     }
 
-    private void matchOpenApiSpecs(BusinessProcess process, List<MultipartFile> openApiSpecs) throws Exception {
-        for (MultipartFile specFile : openApiSpecs) {
-            String specContent = new String(specFile.getBytes(), StandardCharsets.UTF_8);
-            OpenAPI openAPI = openApiParser.parseOpenApiSpec(specContent);
+    private int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
 
-            for (ProcessStep step : process.getSteps()) {
-                if (step.getApiEndpoint() == null || step.getApiEndpoint().isBlank()) {
-                    ApiEndpointInfo match = openApiParser.findBestMatchingEndpoint(
-                        openAPI, step.getStepName(), ""
-                    );
-
-                    if (match != null) {
-                        step.setApiEndpoint(match.getPath());
-                        step.setHttpMethod(match.getMethod());
-                        log.info("Auto-matched '{}' to {} {}", step.getStepName(), match.getMethod(), match.getPath());
-                    }
-                }
+    /**
+     * Listings keep a plain array body; the cursor for the next page, if any, goes in a header.
+     */
+    private <T> ResponseEntity<T> withNextCursor(T body, Long nextCursor) {
+        if (nextCursor == null) {
+            return ResponseEntity.ok(body);
+        }
+        return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, nextCursor.toString()).body(body);
+    }
+
+    /**
+     * Write a report straight to the response; the surrounding read-only transaction
+     * keeps the step result cursor open while it is written.
+     */
+    private void streamReport(Long id, ReportFormat format, boolean gzip, HttpServletResponse response) throws IOException {
+        Optional<TestExecution> execution = executionRepository.findWithProcessById(id);
+        
+        if (execution.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        response.setContentType(format.getContentType());
+        response.setHeader("Content-Disposition",
+            "attachment; filename=report-" + id + "." + format.getExtension());
+
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+            try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 8192)) {
+                reportExportService.export(execution.get(), format, out);
             }
+        } else {
+            reportExportService.export(execution.get(), format, response.getOutputStream());
+        }
+    }
+
+    private void matchOpenApiSpecs(BusinessProcess process, List<MultipartFile> openApiSpecs) throws Exception {
+        List<EndpointIndex> specs = new ArrayList<>();
+        for (MultipartFile specFile : openApiSpecs) {
+            specs.add(processImportService.loadSpec(specFile.getBytes()));
         }
+        processImportService.matchEndpoints(process, specs);
     }
 
     private TestExecutionResponse buildExecutionResponse(TestExecution execution) {
@@ -416,6 +639,7 @@ public class BpmnApiTesterController {
                 : "Test execution failed")
             .stepResults(stepResults)
             .aiAnalysis(execution.getAiAnalysis())
+            .dataSeed(execution.getDataSeed())
             .build();
     }
 
@@ -0,0 +1,6 @@
+package ru.bankingapi.bpmntester.domain;
+
+public enum AnalyticsBucket {
+    HOUR,
+    DAY
+}
@@ -3,7 +3,12 @@ package ru.bankingapi.bpmntester.domain;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 @Data
@@ -19,4 +24,58 @@ public class ApiEndpointInfo {
     private Map<String, Object> requestSchema;
     private Map<String, Object> responseSchema;
     private List<String> requiredFields;
-}
\ No newline at end of file
+
+    /**
+     * Digest of the request schema and required fields, computed on first use and
+     * serialized with the info, so caches keyed by the schema do not walk it on every
+     * lookup. Infos are not modified after they are built.
+     */
+    @EqualsAndHashCode.Exclude
+    private String schemaKey;
+
+    public String getSchemaKey() {
+        if (schemaKey == null) {
+            StringBuilder shape = new StringBuilder();
+            appendCanonical(requestSchema, shape);
+            shape.append('|');
+            appendCanonical(requiredFields, shape);
+            schemaKey = sha256Prefix(shape.toString());
+        }
+        return schemaKey;
+    }
+
+    /**
+     * Maps with their keys sorted, so equal schemas give equal text whatever their map type.
+     */
+    private static void appendCanonical(Object value, StringBuilder out) {
+        if (value instanceof Map<?, ?> map) {
+            out.append('{');
+            new TreeMap<>(map).forEach((key, nested) -> {
+                out.append(key).append('=');
+                appendCanonical(nested, out);
+                out.append(',');
+            });
+            out.append('}');
+        } else if (value instanceof Collection<?> items) {
+            out.append('[');
+            items.forEach(item -> {
+                appendCanonical(item, out);
+                out.append(',');
+            });
+            out.append(']');
+        } else if (value instanceof String text) {
+            out.append('"').append(text.replace("\"", "\\\"")).append('"');
+        } else {
+            out.append(value);
+        }
+    }
+
+    private static String sha256Prefix(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.bankingapi.bpmntester.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * One line of a retention archive: an execution with all of its step results.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ArchivedExecution {
+    private Long id;
+    private Long processId;
+    private String processName;
+    private ExecutionMode mode;
+    private ExecutionStatus status;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private String aiAnalysis;
+    private String errorSummary;
+    private Long dataSeed;
+    private List<Result> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Result {
+        private Long processStepId;
+        private String stepId;
+        private String stepName;
+        private Integer executionOrder;
+        private StepStatus status;
+        private String requestPayload;
+        private String responsePayload;
+        private Integer httpStatusCode;
+        private String errorMessage;
+        private String validationErrors;
+        private Long executionTimeMs;
+        private LocalDateTime executedAt;
+    }
+}
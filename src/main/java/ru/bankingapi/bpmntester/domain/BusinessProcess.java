@@ -16,7 +16,8 @@ import java.util.*;
 @Builder
 public class BusinessProcess {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "business_process_seq")
+    @SequenceGenerator(name = "business_process_seq", sequenceName = "business_process_seq", allocationSize = 50)
     private Long id;
     
     private String name;
@@ -27,10 +28,16 @@ public class BusinessProcess {
     @Column(name = "bpmn_xml", columnDefinition = "TEXT")
     private String bpmnXml;
     
-    @OneToMany(mappedBy = "businessProcess", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "businessProcess", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @OrderBy("stepOrder ASC")
     private List<ProcessStep> steps = new ArrayList<>();
     
+    private Boolean responseCacheEnabled;
+    
+    /** JSON list of the spec operations uploaded with the process, served in MOCK mode. */
+    @Column(columnDefinition = "TEXT")
+    private String mockEndpoints;
+    
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
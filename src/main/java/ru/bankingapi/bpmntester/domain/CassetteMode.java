@@ -0,0 +1,7 @@
+package ru.bankingapi.bpmntester.domain;
+
+public enum CassetteMode {
+    OFF,
+    RECORD,
+    REPLAY
+}
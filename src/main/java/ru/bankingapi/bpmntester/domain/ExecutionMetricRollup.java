@@ -0,0 +1,44 @@
+package ru.bankingapi.bpmntester.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Executions of one process started within one minute, counted per status. Maintained
+ * incrementally by {@code ExecutionMetricRollupService}, so the counts survive the
+ * executions being archived.
+ */
+@Entity
+@Table(
+    name = "execution_metric_rollups",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_execution_metric_rollup",
+        columnNames = {"process_id", "minute_start", "status"}
+    )
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExecutionMetricRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "process_id", nullable = false)
+    private Long processId;
+
+    @Column(name = "minute_start", nullable = false)
+    private LocalDateTime minuteStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ExecutionStatus status;
+
+    private long executionCount;
+}
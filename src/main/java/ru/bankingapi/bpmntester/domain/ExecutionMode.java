@@ -2,5 +2,6 @@ package ru.bankingapi.bpmntester.domain;
 
 public enum ExecutionMode {
     STANDARD,
-    GOST
+    GOST,
+    MOCK
 }
\ No newline at end of file
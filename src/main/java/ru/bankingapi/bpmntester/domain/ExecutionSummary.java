@@ -0,0 +1,15 @@
+package ru.bankingapi.bpmntester.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * Summary columns of a {@link TestExecution} for listings; never loads step results.
+ */
+public interface ExecutionSummary {
+    Long getId();
+    ExecutionMode getMode();
+    ExecutionStatus getStatus();
+    LocalDateTime getStartedAt();
+    LocalDateTime getCompletedAt();
+    int getStepCount();
+}
@@ -0,0 +1,126 @@
+package ru.bankingapi.bpmntester.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A distinct request or response body, stored once and referenced by step results.
+ * <p>
+ * Blobs are keyed by the SHA-256 of the original body and are immutable once written.
+ * Bodies above the store's size cap are cut and end with a truncation marker; bodies
+ * that shrink when deflated are stored compressed.
+ */
+@Entity
+@Table(name = "payload_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayloadBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payload_blob_seq")
+    @SequenceGenerator(name = "payload_blob_seq", sequenceName = "payload_blob_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String sha256;
+
+    /** UTF-8 length of the body before truncation. */
+    private long originalBytes;
+
+    private boolean truncated;
+    private boolean compressed;
+
+    @ToString.Exclude
+    @Column(nullable = false, length = 16_777_216)
+    private byte[] data;
+
+    private LocalDateTime createdAt;
+
+    /** When an execution last referenced the blob; unreferenced blobs are purged by this. */
+    private LocalDateTime lastUsedAt;
+
+    @Transient
+    @ToString.Exclude
+    private transient String text;
+
+    /**
+     * Build a blob for (already truncated) text, deflating it when that saves space.
+     */
+    public static PayloadBlob of(String sha256, String text, long originalBytes, boolean truncated, int compressAbove) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        byte[] deflated = raw.length > compressAbove ? deflate(raw) : null;
+        boolean compress = deflated != null && deflated.length < raw.length;
+
+        PayloadBlob blob = PayloadBlob.builder()
+            .sha256(sha256)
+            .originalBytes(originalBytes)
+            .truncated(truncated)
+            .compressed(compress)
+            .data(compress ? deflated : raw)
+            .createdAt(LocalDateTime.now())
+            .lastUsedAt(LocalDateTime.now())
+            .build();
+        blob.text = text;
+        return blob;
+    }
+
+    /**
+     * The stored body, inflated on first access.
+     */
+    public String getText() {
+        if (text == null && data != null) {
+            text = new String(compressed ? inflate(data) : data, StandardCharsets.UTF_8);
+        }
+        return text;
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] deflated) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflated);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(deflated.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated payload blob");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt payload blob: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.bankingapi.bpmntester.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessAnalytics {
+    private Long processId;
+    private String processName;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private AnalyticsBucket bucket;
+    private long totalExecutions;
+    private long completedExecutions;
+    private long failedExecutions;
+    private Double successRate;
+    private Map<ExecutionStatus, Long> statusCounts;
+    private List<TrendPoint> trend;
+    private List<StepStats> steps;
+    private List<ErrorClassCount> errors;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TrendPoint {
+        private LocalDateTime bucketStart;
+        private long executions;
+        private long completed;
+        private long failed;
+        private Double successRate;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StepStats {
+        private String stepId;
+        private String stepName;
+        private long executions;
+        private long errors;
+        private Double errorRate;
+        private Double avgMs;
+        private Long p50Ms;
+        private Long p90Ms;
+        private Long p95Ms;
+        private Long p99Ms;
+        private Long maxMs;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorClassCount {
+        private String errorClass;
+        private long count;
+    }
+}
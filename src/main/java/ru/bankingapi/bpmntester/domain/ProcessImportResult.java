@@ -0,0 +1,39 @@
+package ru.bankingapi.bpmntester.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessImportResult {
+    private int imported;
+    private int specs;
+    private long durationMs;
+    private List<ImportedProcess> processes;
+    private List<ImportError> errors;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ImportedProcess {
+        private Long id;
+        private String name;
+        private String file;
+        private int steps;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ImportError {
+        private String file;
+        private String error;
+    }
+}
@@ -7,14 +7,18 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "process_steps")
+@Table(
+    name = "process_steps",
+    indexes = @Index(name = "idx_process_step_process", columnList = "business_process_id, step_order")
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class ProcessStep {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "process_step_seq")
+    @SequenceGenerator(name = "process_step_seq", sequenceName = "process_step_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
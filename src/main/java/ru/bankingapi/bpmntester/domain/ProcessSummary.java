@@ -0,0 +1,14 @@
+package ru.bankingapi.bpmntester.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * Summary columns of a {@link BusinessProcess} for listings; never loads steps or the BPMN XML.
+ */
+public interface ProcessSummary {
+    Long getId();
+    String getName();
+    String getDescription();
+    LocalDateTime getCreatedAt();
+    int getStepCount();
+}
@@ -0,0 +1,22 @@
+package ru.bankingapi.bpmntester.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RecordedInteraction {
+    private String stepId;
+    private String method;
+    private String url;
+    private String requestBody;
+    private Integer statusCode;
+    private String contentType;
+    private String responseBody;
+}
@@ -0,0 +1,23 @@
+package ru.bankingapi.bpmntester.domain;
+
+public enum ReportFormat {
+    HTML("html", "text/html; charset=UTF-8"),
+    CSV("csv", "text/csv; charset=UTF-8"),
+    JSON("json", "application/json; charset=UTF-8");
+
+    private final String extension;
+    private final String contentType;
+
+    ReportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
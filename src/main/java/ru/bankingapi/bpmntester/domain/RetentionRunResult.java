@@ -0,0 +1,22 @@
+package ru.bankingapi.bpmntester.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetentionRunResult {
+    private LocalDateTime cutoff;
+    private int archivedExecutions;
+    private int deletedResults;
+    private int purgedPayloads;
+    private List<String> archiveFiles;
+    private List<String> droppedPartitions;
+    private long durationMs;
+}
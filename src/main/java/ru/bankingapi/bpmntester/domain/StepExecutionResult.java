@@ -5,10 +5,17 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "step_execution_results")
+@Table(
+    name = "step_execution_results",
+    indexes = {
+        @Index(name = "idx_step_result_execution", columnList = "test_execution_id, execution_order"),
+        @Index(name = "idx_step_result_executed_at", columnList = "executed_at")
+    }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,10 +38,21 @@ public class StepExecutionResult {
     @Enumerated(EnumType.STRING)
     private StepStatus status;
     
-    @Column(columnDefinition = "TEXT")
+    /** Bodies live in {@link PayloadBlob}s; the String fields below are their decoded views. */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "request_payload_id")
+    @ToString.Exclude
+    private PayloadBlob requestBlob;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "response_payload_id")
+    @ToString.Exclude
+    private PayloadBlob responseBlob;
+    
+    @Transient
     private String requestPayload;
     
-    @Column(columnDefinition = "TEXT")
+    @Transient
     private String responsePayload;
     
     private Integer httpStatusCode;
@@ -47,4 +65,18 @@ public class StepExecutionResult {
     
     private Long executionTimeMs;
     private LocalDateTime executedAt;
+    
+    public String getRequestPayload() {
+        if (requestPayload == null && requestBlob != null) {
+            requestPayload = requestBlob.getText();
+        }
+        return requestPayload;
+    }
+    
+    public String getResponsePayload() {
+        if (responsePayload == null && responseBlob != null) {
+            responsePayload = responseBlob.getText();
+        }
+        return responsePayload;
+    }
 }
\ No newline at end of file
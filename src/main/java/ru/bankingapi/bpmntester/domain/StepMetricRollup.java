@@ -0,0 +1,59 @@
+package ru.bankingapi.bpmntester.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Step results of one process step within one minute, counted per latency bucket
+ * and error class. Maintained incrementally by {@code StepMetricRollupService}.
+ */
+@Entity
+@Table(
+    name = "step_metric_rollups",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_step_metric_rollup",
+        columnNames = {"process_id", "process_step_id", "minute_start", "latency_bucket", "error_class"}
+    ),
+    indexes = @Index(name = "idx_step_metric_rollup_process_minute", columnList = "process_id, minute_start")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StepMetricRollup {
+
+    /** Error class of successful results. */
+    public static final String NO_ERROR = "NONE";
+
+    /** Latency bucket of results without a measured time. */
+    public static final int UNTIMED = -1;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "process_id", nullable = false)
+    private Long processId;
+
+    @Column(name = "process_step_id", nullable = false)
+    private Long processStepId;
+
+    @Column(name = "minute_start", nullable = false)
+    private LocalDateTime minuteStart;
+
+    /** Index into {@code LatencyHistogram.BOUNDS_MS}, or {@link #UNTIMED}. */
+    @Column(name = "latency_bucket", nullable = false)
+    private Integer latencyBucket;
+
+    @Column(name = "error_class", nullable = false, length = 32)
+    private String errorClass;
+
+    private long sampleCount;
+    private long errorCount;
+    private long latencySumMs;
+    private long latencyMaxMs;
+}
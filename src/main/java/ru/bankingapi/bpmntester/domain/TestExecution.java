@@ -9,7 +9,14 @@ import java.time.LocalDateTime;
 import java.util.*;
 
 @Entity
-@Table(name = "test_executions")
+@Table(
+    name = "test_executions",
+    indexes = {
+        @Index(name = "idx_test_execution_process_started", columnList = "business_process_id, started_at"),
+        @Index(name = "idx_test_execution_started", columnList = "started_at"),
+        @Index(name = "idx_test_execution_status", columnList = "status, started_at")
+    }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,6 +40,7 @@ public class TestExecution {
     private LocalDateTime completedAt;
     
     @OneToMany(mappedBy = "testExecution", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("executionOrder ASC, id ASC")
     private List<StepExecutionResult> stepResults = new ArrayList<>();
     
     @Column(columnDefinition = "TEXT")
@@ -40,4 +48,10 @@ public class TestExecution {
     
     @Column(columnDefinition = "TEXT")
     private String errorSummary;
+    
+    /** Seed of the random that generated fallback request data; reusing it repeats the bodies. */
+    private Long dataSeed;
+    
+    /** Set when the execution was restored from an archive; retention measures age from here. */
+    private LocalDateTime rehydratedAt;
 }
\ No newline at end of file
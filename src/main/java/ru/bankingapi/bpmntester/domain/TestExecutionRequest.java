@@ -15,4 +15,7 @@ public class TestExecutionRequest {
     private ExecutionMode mode;
     private Map<String, Object> initialContext;
     private boolean generateTestData;
+    private CassetteMode cassetteMode;
+    /** Seed for generated fallback data; {@code null} picks a fresh one. */
+    private Long dataSeed;
 }
\ No newline at end of file
@@ -16,4 +16,5 @@ public class TestExecutionResponse {
     private String message;
     private List<StepResultDto> stepResults;
     private String aiAnalysis;
+    private Long dataSeed;
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package ru.bankingapi.bpmntester.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.bankingapi.bpmntester.domain.BusinessProcess;
+import ru.bankingapi.bpmntester.domain.ProcessSummary;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,4 +17,15 @@ public interface BusinessProcessRepository extends JpaRepository<BusinessProcess
     // ADD THIS METHOD
     @Query("SELECT DISTINCT p FROM BusinessProcess p LEFT JOIN FETCH p.steps WHERE p.id = :id")
     Optional<BusinessProcess> findByIdWithSteps(Long id);
-}
\ No newline at end of file
+
+    /**
+     * Processes with an id above {@code afterId}, oldest first; pass 0 for the first page.
+     */
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, " +
+           "p.createdAt AS createdAt, SIZE(p.steps) AS stepCount " +
+           "FROM BusinessProcess p WHERE p.id > ?1 ORDER BY p.id")
+    List<ProcessSummary> findSummariesAfter(Long afterId, Limit limit);
+
+    @Query("SELECT p.bpmnXml FROM BusinessProcess p WHERE p.id = ?1")
+    Optional<String> findBpmnXmlById(Long id);
+}
@@ -0,0 +1,55 @@
+package ru.bankingapi.bpmntester.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.bankingapi.bpmntester.domain.ExecutionMetricRollup;
+import ru.bankingapi.bpmntester.domain.ExecutionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ExecutionMetricRollupRepository extends JpaRepository<ExecutionMetricRollup, Long> {
+
+    /**
+     * Add {@code delta} executions to an existing rollup row; returns the number of rows updated (0 or 1).
+     */
+    @Modifying
+    @Query("UPDATE ExecutionMetricRollup r SET r.executionCount = r.executionCount + ?4 " +
+           "WHERE r.processId = ?1 AND r.minuteStart = ?2 AND r.status = ?3")
+    int increment(Long processId, LocalDateTime minuteStart, ExecutionStatus status, long delta);
+
+    @Query("SELECT r.status, SUM(r.executionCount) FROM ExecutionMetricRollup r " +
+           "WHERE r.processId = ?1 AND r.minuteStart >= ?2 AND r.minuteStart < ?3 " +
+           "GROUP BY r.status HAVING SUM(r.executionCount) > 0")
+    List<Object[]> countByStatus(Long processId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Rows of {@code [year, month, day, hour, executions, completed, failed]}, oldest first.
+     */
+    @Query("SELECT year(r.minuteStart), month(r.minuteStart), day(r.minuteStart), hour(r.minuteStart), " +
+           "SUM(r.executionCount), " +
+           "SUM(CASE WHEN r.status = ru.bankingapi.bpmntester.domain.ExecutionStatus.COMPLETED THEN r.executionCount ELSE 0 END), " +
+           "SUM(CASE WHEN r.status = ru.bankingapi.bpmntester.domain.ExecutionStatus.FAILED THEN r.executionCount ELSE 0 END) " +
+           "FROM ExecutionMetricRollup r " +
+           "WHERE r.processId = ?1 AND r.minuteStart >= ?2 AND r.minuteStart < ?3 " +
+           "GROUP BY year(r.minuteStart), month(r.minuteStart), day(r.minuteStart), hour(r.minuteStart) " +
+           "HAVING SUM(r.executionCount) > 0 " +
+           "ORDER BY year(r.minuteStart), month(r.minuteStart), day(r.minuteStart), hour(r.minuteStart)")
+    List<Object[]> hourlyTrend(Long processId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Rows of {@code [year, month, day, executions, completed, failed]}, oldest first.
+     */
+    @Query("SELECT year(r.minuteStart), month(r.minuteStart), day(r.minuteStart), SUM(r.executionCount), " +
+           "SUM(CASE WHEN r.status = ru.bankingapi.bpmntester.domain.ExecutionStatus.COMPLETED THEN r.executionCount ELSE 0 END), " +
+           "SUM(CASE WHEN r.status = ru.bankingapi.bpmntester.domain.ExecutionStatus.FAILED THEN r.executionCount ELSE 0 END) " +
+           "FROM ExecutionMetricRollup r " +
+           "WHERE r.processId = ?1 AND r.minuteStart >= ?2 AND r.minuteStart < ?3 " +
+           "GROUP BY year(r.minuteStart), month(r.minuteStart), day(r.minuteStart) " +
+           "HAVING SUM(r.executionCount) > 0 " +
+           "ORDER BY year(r.minuteStart), month(r.minuteStart), day(r.minuteStart)")
+    List<Object[]> dailyTrend(Long processId, LocalDateTime from, LocalDateTime to);
+}
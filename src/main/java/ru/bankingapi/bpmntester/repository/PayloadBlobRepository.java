@@ -0,0 +1,32 @@
+package ru.bankingapi.bpmntester.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.bankingapi.bpmntester.domain.PayloadBlob;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface PayloadBlobRepository extends JpaRepository<PayloadBlob, Long> {
+
+    @Query("SELECT b.id FROM PayloadBlob b WHERE b.sha256 = ?1")
+    Optional<Long> findIdBySha256(String sha256);
+
+    /**
+     * Mark the blob as used at {@code usedAt}; returns 0 when it no longer exists.
+     */
+    @Modifying
+    @Query("UPDATE PayloadBlob b SET b.lastUsedAt = ?2 WHERE b.id = ?1")
+    int touch(Long id, LocalDateTime usedAt);
+
+    /**
+     * Delete blobs last used before {@code usedBefore} that no step result references.
+     */
+    @Modifying
+    @Query("DELETE FROM PayloadBlob b WHERE COALESCE(b.lastUsedAt, b.createdAt) < ?1 " +
+           "AND NOT EXISTS (SELECT 1 FROM StepExecutionResult r WHERE r.requestBlob = b OR r.responseBlob = b)")
+    int deleteUnreferencedUnusedSince(LocalDateTime usedBefore);
+}
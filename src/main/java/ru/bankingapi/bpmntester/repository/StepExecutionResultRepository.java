@@ -1,12 +1,55 @@
 package ru.bankingapi.bpmntester.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import ru.bankingapi.bpmntester.domain.StepExecutionResult;
+import ru.bankingapi.bpmntester.domain.StepStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface StepExecutionResultRepository extends JpaRepository<StepExecutionResult, Long> {
     List<StepExecutionResult> findByTestExecutionIdOrderByExecutionOrder(Long testExecutionId);
-}
\ No newline at end of file
+
+    /**
+     * Results of one execution in order with their steps, fetched in chunks; the payload
+     * blobs are left unloaded. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "50"))
+    @Query("SELECT r FROM StepExecutionResult r JOIN FETCH r.processStep " +
+           "WHERE r.testExecution.id = ?1 ORDER BY r.executionOrder, r.id")
+    Stream<StepExecutionResult> streamByExecutionId(Long testExecutionId);
+
+    /**
+     * Like {@link #streamByExecutionId} but with the payload blobs fetched in the same query.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "50"))
+    @Query("SELECT r FROM StepExecutionResult r JOIN FETCH r.processStep " +
+           "LEFT JOIN FETCH r.requestBlob LEFT JOIN FETCH r.responseBlob " +
+           "WHERE r.testExecution.id = ?1 ORDER BY r.executionOrder, r.id")
+    Stream<StepExecutionResult> streamWithPayloadsByExecutionId(Long testExecutionId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "50"))
+    @Query("SELECT r FROM StepExecutionResult r JOIN FETCH r.processStep " +
+           "WHERE r.testExecution.id = ?1 AND r.status <> ?2 ORDER BY r.executionOrder, r.id")
+    Stream<StepExecutionResult> streamByExecutionIdAndStatusNot(Long testExecutionId, StepStatus status);
+
+    /**
+     * Delete the results of the given executions, except those executed before
+     * {@code keepBefore} (left to be dropped with their partition). Results of
+     * rehydrated executions are always deleted.
+     */
+    @Modifying
+    @Query("DELETE FROM StepExecutionResult r WHERE r.testExecution.id IN ?1 " +
+           "AND (r.executedAt IS NULL OR r.executedAt >= ?2 OR EXISTS (" +
+           "SELECT 1 FROM TestExecution e WHERE e.id = r.testExecution.id AND e.rehydratedAt IS NOT NULL))")
+    int deleteByExecutionIds(Collection<Long> executionIds, LocalDateTime keepBefore);
+}
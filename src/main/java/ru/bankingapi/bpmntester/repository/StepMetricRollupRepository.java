@@ -0,0 +1,48 @@
+package ru.bankingapi.bpmntester.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.bankingapi.bpmntester.domain.StepMetricRollup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StepMetricRollupRepository extends JpaRepository<StepMetricRollup, Long> {
+
+    /**
+     * Add one result to an existing rollup row; returns the number of rows updated (0 or 1).
+     */
+    @Modifying
+    @Query("UPDATE StepMetricRollup r SET r.sampleCount = r.sampleCount + 1, " +
+           "r.errorCount = r.errorCount + ?6, " +
+           "r.latencySumMs = r.latencySumMs + ?7, " +
+           "r.latencyMaxMs = CASE WHEN r.latencyMaxMs < ?7 THEN ?7 ELSE r.latencyMaxMs END " +
+           "WHERE r.processId = ?1 AND r.processStepId = ?2 AND r.minuteStart = ?3 " +
+           "AND r.latencyBucket = ?4 AND r.errorClass = ?5")
+    int increment(Long processId, Long processStepId, LocalDateTime minuteStart,
+                  Integer latencyBucket, String errorClass, long errors, long latencyMs);
+
+    /**
+     * Rows of {@code [stepId, stepName, latencyBucket, samples, errors, latencySumMs, latencyMaxMs]},
+     * in process order.
+     */
+    @Query("SELECT s.stepId, s.stepName, r.latencyBucket, SUM(r.sampleCount), SUM(r.errorCount), " +
+           "SUM(r.latencySumMs), MAX(r.latencyMaxMs) " +
+           "FROM StepMetricRollup r JOIN ProcessStep s ON s.id = r.processStepId " +
+           "WHERE r.processId = ?1 AND r.minuteStart >= ?2 AND r.minuteStart < ?3 " +
+           "GROUP BY s.id, s.stepOrder, s.stepId, s.stepName, r.latencyBucket " +
+           "ORDER BY s.stepOrder, s.id, r.latencyBucket")
+    List<Object[]> stepBuckets(Long processId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Rows of {@code [errorClass, count]} for unsuccessful results.
+     */
+    @Query("SELECT r.errorClass, SUM(r.errorCount) FROM StepMetricRollup r " +
+           "WHERE r.processId = ?1 AND r.minuteStart >= ?2 AND r.minuteStart < ?3 " +
+           "AND r.errorClass <> ru.bankingapi.bpmntester.domain.StepMetricRollup.NO_ERROR " +
+           "GROUP BY r.errorClass")
+    List<Object[]> countErrorsByClass(Long processId, LocalDateTime from, LocalDateTime to);
+}
@@ -1,17 +1,62 @@
 package ru.bankingapi.bpmntester.repository;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.bankingapi.bpmntester.domain.ExecutionStatus;
+import ru.bankingapi.bpmntester.domain.ExecutionSummary;
 import ru.bankingapi.bpmntester.domain.TestExecution;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TestExecutionRepository extends JpaRepository<TestExecution, Long> {
-    List<TestExecution> findByBusinessProcessIdOrderByStartedAtDesc(Long businessProcessId);
+    /**
+     * Executions of a process with an id below {@code beforeId}, newest first; pass
+     * {@code Long.MAX_VALUE} for the first page.
+     */
+    @Query("SELECT e.id AS id, e.mode AS mode, e.status AS status, e.startedAt AS startedAt, " +
+           "e.completedAt AS completedAt, SIZE(e.stepResults) AS stepCount " +
+           "FROM TestExecution e WHERE e.businessProcess.id = ?1 AND e.id < ?2 ORDER BY e.id DESC")
+    List<ExecutionSummary> findSummariesBefore(Long processId, Long beforeId, Limit limit);
     
+    /**
+     * An execution with its process, step results, their steps and payload blobs, in one query.
+     */
+    @EntityGraph(attributePaths = {
+        "businessProcess", "stepResults.processStep", "stepResults.requestBlob", "stepResults.responseBlob"
+    })
+    Optional<TestExecution> findWithResultsById(Long id);
+
+    /**
+     * An execution with its process only; results are read separately (see the report streams).
+     */
+    @EntityGraph(attributePaths = "businessProcess")
+    Optional<TestExecution> findWithProcessById(Long id);
+
     @Query("SELECT e FROM TestExecution e WHERE e.status = ?1 ORDER BY e.startedAt DESC")
     List<TestExecution> findByStatus(ExecutionStatus status);
-}
\ No newline at end of file
+
+    /**
+     * Ids of finished executions started (or rehydrated) before {@code cutoff}, oldest first.
+     */
+    @Query("SELECT e.id FROM TestExecution e WHERE e.startedAt < ?1 " +
+           "AND (e.rehydratedAt IS NULL OR e.rehydratedAt < ?1) " +
+           "AND e.status NOT IN (ru.bankingapi.bpmntester.domain.ExecutionStatus.PENDING, " +
+           "ru.bankingapi.bpmntester.domain.ExecutionStatus.RUNNING) " +
+           "ORDER BY e.id")
+    List<Long> findIdsToArchive(LocalDateTime cutoff, Limit limit);
+
+    @Query("SELECT e FROM TestExecution e JOIN FETCH e.businessProcess WHERE e.id IN ?1 ORDER BY e.id")
+    List<TestExecution> findAllWithProcessByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM TestExecution e WHERE e.id IN ?1")
+    int deleteByIdIn(Collection<Long> ids);
+}
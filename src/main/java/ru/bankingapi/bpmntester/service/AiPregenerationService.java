@@ -0,0 +1,246 @@
+package ru.bankingapi.bpmntester.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.bankingapi.bpmntester.domain.ApiEndpointInfo;
+import ru.bankingapi.bpmntester.domain.BusinessProcess;
+import ru.bankingapi.bpmntester.domain.ProcessStep;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pools of model-generated request bodies, filled in the background so executions
+ * never wait on the model.
+ * <p>
+ * Each distinct endpoint (see {@link AiTemplateCache#endpointKey}) keeps up to
+ * {@code ai.pregeneration.pool-size} ready bodies. Pools are filled when a process is
+ * uploaded and topped up after every draw by {@code ai.pregeneration.concurrency}
+ * worker threads, which bounds the load on the local model; each fill asks for all
+ * missing bodies at once so the generator can batch them into one prompt. A draw
+ * from an empty pool gets fallback data and schedules a fill; an endpoint whose fill
+ * failed is not retried for {@code ai.pregeneration.retry-after-seconds}.
+ */
+@Service
+@Slf4j
+public class AiPregenerationService {
+
+    private final AiTestDataGenerator generator;
+    private final AiTemplateCache templateCache;
+    private final OpenApiParserService openApiParser;
+
+    @Value("${ai.pregeneration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.pregeneration.pool-size:4}")
+    private int poolSize;
+
+    @Value("${ai.pregeneration.concurrency:2}")
+    private int concurrency;
+
+    @Value("${ai.pregeneration.retry-after-seconds:30}")
+    private long retryAfterSeconds;
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private ExecutorService workers;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public AiPregenerationService(
+        AiTestDataGenerator generator,
+        AiTemplateCache templateCache,
+        OpenApiParserService openApiParser
+    ) {
+        this.generator = generator;
+        this.templateCache = templateCache;
+        this.openApiParser = openApiParser;
+    }
+
+    @PostConstruct
+    void startWorkers() {
+        AtomicInteger threads = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "ai-pregen-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Start filling the pools of every step of a freshly stored process. The first body
+     * of every endpoint comes from one batched prompt; the pools are then topped up.
+     */
+    public void prefill(BusinessProcess process) {
+        if (!isActive()) {
+            return;
+        }
+        Map<String, Pool> empty = new LinkedHashMap<>();
+        for (ProcessStep step : process.getSteps()) {
+            if (step.getApiEndpoint() != null) {
+                Pool pool = pool(openApiParser.endpointInfoFor(step));
+                if (reserve(pool, 1) > 0) {
+                    empty.putIfAbsent(pool.key, pool);
+                }
+            }
+        }
+        if (empty.isEmpty()) {
+            return;
+        }
+
+        List<Pool> pools = new ArrayList<>(empty.values());
+        log.debug("Pre-generating test data for {} endpoints of process {}", pools.size(), process.getId());
+        submit(pools, 1, () -> {
+            List<Map<String, Object>> bodies = generator.generateForSteps(
+                pools.stream().map(pool -> pool.endpointInfo).toList()
+            );
+            for (int i = 0; i < pools.size(); i++) {
+                offer(pools.get(i), bodies.get(i) != null ? List.of(bodies.get(i)) : List.of(), 1);
+            }
+            pools.forEach(this::topUp);
+        });
+    }
+
+    /**
+     * Test data for one step: a pooled body with the context filled in, or fallback
+     * data drawn from {@code random} when the pool is empty. Without the model this is
+     * plain generation.
+     */
+    public Map<String, Object> nextTestData(
+        ApiEndpointInfo endpointInfo,
+        Map<String, Object> contextData,
+        SplittableRandom random
+    ) {
+        if (!isActive()) {
+            return generator.generateTestData(endpointInfo, contextData, random);
+        }
+
+        Pool pool = pool(endpointInfo);
+        Map<String, Object> body = pool.ready.poll();
+        topUp(pool);
+
+        if (body == null) {
+            misses.incrementAndGet();
+            log.debug("Pre-generation pool empty for {}, using fallback", pool.key);
+            return generator.generateFallbackData(endpointInfo, contextData, random);
+        }
+        hits.incrementAndGet();
+        if (contextData != null) {
+            contextData.forEach(body::putIfAbsent);
+        }
+        return body;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("endpoints", pools.size());
+        stats.put("ready", pools.values().stream().mapToInt(pool -> pool.ready.size()).sum());
+        stats.put("poolSize", poolSize);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("generated", generated.get());
+        stats.put("failures", failures.get());
+        return stats;
+    }
+
+    public void clear() {
+        pools.clear();
+    }
+
+    private boolean isActive() {
+        return enabled && generator.usesModel();
+    }
+
+    private Pool pool(ApiEndpointInfo endpointInfo) {
+        String key = templateCache.endpointKey(endpointInfo);
+        return pools.computeIfAbsent(key, k -> new Pool(k, endpointInfo, new ArrayBlockingQueue<>(Math.max(1, poolSize))));
+    }
+
+    private void topUp(Pool pool) {
+        int missing = reserve(pool, poolSize);
+        if (missing > 0) {
+            submit(List.of(pool), missing, () -> offer(pool, generator.generateFromModel(pool.endpointInfo, missing), missing));
+        }
+    }
+
+    /**
+     * Claim up to {@code wanted} empty slots of the pool for a fill; returns how many were claimed.
+     */
+    private int reserve(Pool pool, int wanted) {
+        if (System.currentTimeMillis() < pool.retryAt) {
+            return 0;
+        }
+        synchronized (pool) {
+            int missing = Math.min(wanted, poolSize - pool.ready.size() - pool.scheduled);
+            if (missing <= 0) {
+                return 0;
+            }
+            pool.scheduled += missing;
+            return missing;
+        }
+    }
+
+    private void submit(List<Pool> pools, int claimedEach, Runnable fill) {
+        try {
+            workers.execute(() -> {
+                try {
+                    fill.run();
+                } catch (Exception e) {
+                    pools.forEach(pool -> offer(pool, List.of(), claimedEach));
+                    log.warn("Pre-generation failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pools.forEach(pool -> release(pool, claimedEach));
+        }
+    }
+
+    /**
+     * Add generated bodies to the pool and release the {@code claimed} slots; fewer
+     * bodies than claimed counts as a failure and pauses the endpoint.
+     */
+    private void offer(Pool pool, List<Map<String, Object>> bodies, int claimed) {
+        bodies.forEach(body -> {
+            if (pool.ready.offer(body)) {
+                generated.incrementAndGet();
+            }
+        });
+        if (bodies.size() < claimed) {
+            failures.incrementAndGet();
+            pool.retryAt = System.currentTimeMillis() + retryAfterSeconds * 1000;
+        }
+        release(pool, claimed);
+    }
+
+    private void release(Pool pool, int slots) {
+        synchronized (pool) {
+            pool.scheduled = Math.max(0, pool.scheduled - slots);
+        }
+    }
+
+    private static final class Pool {
+        private final String key;
+        private final ApiEndpointInfo endpointInfo;
+        private final BlockingQueue<Map<String, Object>> ready;
+        private int scheduled;
+        private volatile long retryAt;
+
+        private Pool(String key, ApiEndpointInfo endpointInfo, BlockingQueue<Map<String, Object>> ready) {
+            this.key = key;
+            this.endpointInfo = endpointInfo;
+            this.ready = ready;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package ru.bankingapi.bpmntester.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.bankingapi.bpmntester.domain.ApiEndpointInfo;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of model-generated request bodies, keyed by (operation, request schema hash,
+ * context key set).
+ * <p>
+ * A cached body is a template: every use gets a deep copy in which UUIDs, identifiers
+ * and amounts are replaced by fresh values of the same shape, drawn from the caller's
+ * random so seeded executions stay repeatable, and the current context values are
+ * filled in. Entries expire after {@code ai.template-cache.ttl-minutes}
+ * and are evicted in LRU order beyond {@code ai.template-cache.max-entries}.
+ * Concurrent misses for the same key wait for a single model call.
+ */
+@Service
+@Slf4j
+public class AiTemplateCache {
+
+    private static final Pattern UUID_PATTERN =
+        Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    /** Leading characters of an identifier kept on refill, e.g. account and card prefixes. */
+    private static final int KEPT_PREFIX = 5;
+
+    @Value("${ai.template-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.template-cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${ai.template-cache.max-entries:512}")
+    private int maxEntries;
+
+    private final LinkedHashMap<String, Template> templates = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CompletableFuture<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * A request body for the endpoint: a refilled copy of the cached template, or the
+     * result of {@code generate} on a miss. Returns {@code null} when generation
+     * produced nothing; such results are not cached.
+     */
+    public Map<String, Object> getOrGenerate(
+        ApiEndpointInfo endpointInfo,
+        Map<String, Object> contextData,
+        SplittableRandom random,
+        Supplier<Map<String, Object>> generate
+    ) {
+        Map<String, Object> context = contextData != null ? contextData : Collections.emptyMap();
+        if (!enabled) {
+            return withContext(generate.get(), context);
+        }
+
+        String key = cacheKey(endpointInfo, context.keySet());
+        Map<String, Object> template = get(key);
+        if (template != null) {
+            hits.incrementAndGet();
+            log.debug("AI template cache hit: {}", key);
+            return withContext(refill(template, random), context);
+        }
+
+        CompletableFuture<Map<String, Object>> pending = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            Map<String, Object> shared = existing.join();
+            if (shared == null) {
+                return null;
+            }
+            hits.incrementAndGet();
+            return withContext(refill(shared, random), context);
+        }
+
+        misses.incrementAndGet();
+        Map<String, Object> generated = null;
+        try {
+            generated = generate.get();
+            if (generated != null && !generated.isEmpty()) {
+                Map<String, Object> stored = new LinkedHashMap<>(generated);
+                stored.keySet().removeAll(context.keySet());
+                put(key, new Template(stored, System.currentTimeMillis() + ttlMinutes * 60_000));
+                pending.complete(stored);
+            } else {
+                pending.complete(null);
+            }
+        } catch (RuntimeException e) {
+            pending.complete(null);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+        return withContext(generated, context);
+    }
+
+    /**
+     * A refilled copy of the context-free template for the endpoint, or {@code null}.
+     */
+    public Map<String, Object> find(ApiEndpointInfo endpointInfo, SplittableRandom random) {
+        if (!enabled) {
+            return null;
+        }
+        Map<String, Object> template = get(cacheKey(endpointInfo, Collections.emptySet()));
+        if (template == null) {
+            return null;
+        }
+        hits.incrementAndGet();
+        return refill(template, random);
+    }
+
+    /**
+     * Store a context-free body generated outside {@link #getOrGenerate}, unless the
+     * endpoint already has a template.
+     */
+    public void seed(ApiEndpointInfo endpointInfo, Map<String, Object> body) {
+        if (!enabled || body == null || body.isEmpty()) {
+            return;
+        }
+        String key = cacheKey(endpointInfo, Collections.emptySet());
+        if (get(key) == null) {
+            misses.incrementAndGet();
+            put(key, new Template(new LinkedHashMap<>(body), System.currentTimeMillis() + ttlMinutes * 60_000));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (templates) {
+            stats.put("entries", templates.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    public void clear() {
+        synchronized (templates) {
+            templates.clear();
+        }
+    }
+
+    private Map<String, Object> get(String key) {
+        synchronized (templates) {
+            Template template = templates.get(key);
+            if (template == null) {
+                return null;
+            }
+            if (template.expiresAt <= System.currentTimeMillis()) {
+                templates.remove(key);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return template.body;
+        }
+    }
+
+    private void put(String key, Template template) {
+        synchronized (templates) {
+            templates.put(key, template);
+            Iterator<Template> eldest = templates.values().iterator();
+            while (templates.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Operation and request schema hash: endpoints with equal keys take the same bodies.
+     */
+    public String endpointKey(ApiEndpointInfo endpointInfo) {
+        String operation = endpointInfo.getOperationId() != null
+            ? endpointInfo.getOperationId()
+            : endpointInfo.getMethod() + " " + endpointInfo.getPath();
+        return operation + "|" + endpointInfo.getSchemaKey();
+    }
+
+    private String cacheKey(ApiEndpointInfo endpointInfo, Set<String> contextKeys) {
+        return endpointKey(endpointInfo) + "|" + String.join(",", new TreeSet<>(contextKeys));
+    }
+
+    private static Map<String, Object> withContext(Map<String, Object> body, Map<String, Object> context) {
+        if (body == null || body.isEmpty()) {
+            return body;
+        }
+        context.forEach(body::putIfAbsent);
+        return body;
+    }
+
+    /**
+     * Deep copy of {@code value} with unique-looking values regenerated.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object refill(Object value, String fieldName, SplittableRandom random) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            ((Map<String, Object>) map).forEach((name, nested) -> copy.put(name, refill(nested, name, random)));
+            return copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(item -> copy.add(refill(item, fieldName, random)));
+            return copy;
+        }
+
+        String name = fieldName != null ? fieldName.toLowerCase(Locale.ROOT) : "";
+        if (value instanceof String text) {
+            if (UUID_PATTERN.matcher(text).matches()) {
+                return FallbackDataGenerator.uuid(random);
+            }
+            if (isIdentifier(name)) {
+                return freshDigits(text, random);
+            }
+            return text;
+        }
+        if (value instanceof Number number && (name.contains("amount") || name.contains("sum"))) {
+            if (number instanceof Double || number instanceof Float) {
+                return Math.round((100 + random.nextDouble() * 99_900) * 100.0) / 100.0;
+            }
+            return random.nextInt(100, 100_000);
+        }
+        return value;
+    }
+
+    private static Map<String, Object> refill(Map<String, Object> template, SplittableRandom random) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> copy = (Map<String, Object>) refill(template, null, random);
+        return copy;
+    }
+
+    private static boolean isIdentifier(String name) {
+        return name.endsWith("id") || name.contains("reference") || name.contains("number");
+    }
+
+    private static String freshDigits(String text, SplittableRandom random) {
+        int keep = text.length() > KEPT_PREFIX * 2 ? KEPT_PREFIX : 0;
+        StringBuilder fresh = new StringBuilder(text.length()).append(text, 0, keep);
+        for (int i = keep; i < text.length(); i++) {
+            char c = text.charAt(i);
+            fresh.append(Character.isDigit(c) ? (char) ('0' + random.nextInt(10)) : c);
+        }
+        return fresh.toString();
+    }
+
+    private record Template(Map<String, Object> body, long expiresAt) {
+    }
+}
@@ -4,110 +4,205 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import ru.bankingapi.bpmntester.domain.ApiEndpointInfo;
 
 import java.util.*;
-import java.util.regex.*;
-import java.util.UUID;
 
 @Service
 @Slf4j
 public class AiTestDataGenerator {
 
     private final ObjectMapper objectMapper;
-    private final RestTemplate restTemplate;
-    private final Random random = new Random();
+    private final AiTemplateCache templateCache;
+    private final OllamaClient ollamaClient;
+    private final FallbackDataGenerator fallbackData;
 
     @Value("${ai.provider:ollama}")
     private String aiProvider;
 
-    @Value("${ai.ollama.base-url:http://localhost:11434}")
-    private String ollamaBaseUrl;
-
-    @Value("${ai.ollama.model:llama3.2:3b}")
-    private String ollamaModel;
-
     @Value("${ai.enabled:true}")
     private boolean aiEnabled;
 
-    public AiTestDataGenerator(ObjectMapper objectMapper) {
+    @Value("${ai.batch.enabled:true}")
+    private boolean batchEnabled;
+
+    @Value("${ai.batch.max-steps:10}")
+    private int batchMaxSteps;
+
+    public AiTestDataGenerator(
+        ObjectMapper objectMapper,
+        AiTemplateCache templateCache,
+        OllamaClient ollamaClient,
+        FallbackDataGenerator fallbackData
+    ) {
         this.objectMapper = objectMapper;
-        this.restTemplate = new RestTemplate();
+        this.templateCache = templateCache;
+        this.ollamaClient = ollamaClient;
+        this.fallbackData = fallbackData;
     }
 
+    /**
+     * Request body for one step; {@code random} supplies the values of fallback data.
+     */
     public Map<String, Object> generateTestData(
         ApiEndpointInfo endpointInfo,
-        Map<String, Object> contextData
+        Map<String, Object> contextData,
+        SplittableRandom random
     ) {
         if (!aiEnabled) {
             log.info("AI disabled, using fallback generation");
-            return generateFallbackData(endpointInfo, contextData);
+            return generateFallbackData(endpointInfo, contextData, random);
         }
 
         if ("ollama".equals(aiProvider)) {
             try {
-                return generateWithOllama(endpointInfo, contextData);
+                return generateWithOllama(endpointInfo, contextData, random);
             } catch (Exception e) {
                 log.warn("Ollama generation failed, using fallback: {}", e.getMessage());
-                return generateFallbackData(endpointInfo, contextData);
+                return generateFallbackData(endpointInfo, contextData, random);
+            }
+        }
+
+        return generateFallbackData(endpointInfo, contextData, random);
+    }
+
+    /**
+     * Whether {@link #generateTestData} would ask the model rather than use fallback data.
+     */
+    public boolean usesModel() {
+        return aiEnabled && "ollama".equals(aiProvider);
+    }
+
+    /**
+     * {@code count} context-free bodies for one endpoint: refills of its cached template,
+     * or fresh ones from the model, asked for in a single prompt when batching is on.
+     * The list is shorter than {@code count} when the model produced less.
+     */
+    public List<Map<String, Object>> generateFromModel(ApiEndpointInfo endpointInfo, int count) {
+        List<Map<String, Object>> bodies = new ArrayList<>(count);
+        SplittableRandom random = new SplittableRandom();
+        Map<String, Object> cached = templateCache.find(endpointInfo, random);
+        if (cached == null && batchEnabled && count > 1) {
+            requestBatchFromOllama(Collections.nCopies(count, endpointInfo), true).stream()
+                .filter(Objects::nonNull)
+                .forEach(bodies::add);
+            if (!bodies.isEmpty()) {
+                templateCache.seed(endpointInfo, bodies.get(0));
             }
+            return bodies;
         }
 
-        return generateFallbackData(endpointInfo, contextData);
+        Map<String, Object> noContext = Collections.emptyMap();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> body = i == 0 && cached != null ? cached : templateCache.getOrGenerate(
+                endpointInfo, noContext, random, () -> requestFromOllama(endpointInfo, noContext)
+            );
+            if (body == null || body.isEmpty()) {
+                break;
+            }
+            bodies.add(body);
+        }
+        return bodies;
+    }
+
+    /**
+     * One context-free body per endpoint, in order ({@code null} where none was produced).
+     * Endpoints without a cached template are described together in prompts of up to
+     * {@code ai.batch.max-steps} requests, so a whole process costs one or a few model calls.
+     */
+    public List<Map<String, Object>> generateForSteps(List<ApiEndpointInfo> endpoints) {
+        List<Map<String, Object>> bodies = new ArrayList<>(Collections.nCopies(endpoints.size(), null));
+        List<Integer> uncached = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom();
+        for (int i = 0; i < endpoints.size(); i++) {
+            Map<String, Object> cached = templateCache.find(endpoints.get(i), random);
+            if (cached != null) {
+                bodies.set(i, cached);
+            } else {
+                uncached.add(i);
+            }
+        }
+
+        int chunk = batchEnabled ? Math.max(1, batchMaxSteps) : 1;
+        for (int from = 0; from < uncached.size(); from += chunk) {
+            List<Integer> indexes = uncached.subList(from, Math.min(uncached.size(), from + chunk));
+            List<ApiEndpointInfo> batch = indexes.stream().map(endpoints::get).toList();
+            List<Map<String, Object>> generated = batch.size() == 1
+                ? Collections.singletonList(requestFromOllama(batch.get(0), Collections.emptyMap()))
+                : requestBatchFromOllama(batch, false);
+
+            for (int i = 0; i < indexes.size(); i++) {
+                Map<String, Object> body = generated.get(i);
+                if (body != null && !body.isEmpty()) {
+                    templateCache.seed(batch.get(i), body);
+                    bodies.set(indexes.get(i), body);
+                }
+            }
+        }
+        return bodies;
     }
 
     private Map<String, Object> generateWithOllama(
+        ApiEndpointInfo endpointInfo,
+        Map<String, Object> contextData,
+        SplittableRandom random
+    ) {
+        Map<String, Object> generatedData = templateCache.getOrGenerate(
+            endpointInfo, contextData, random, () -> requestFromOllama(endpointInfo, contextData)
+        );
+
+        if (generatedData == null || generatedData.isEmpty()) {
+            log.warn("Ollama returned empty data, using fallback");
+            return generateFallbackData(endpointInfo, contextData, random);
+        }
+        return generatedData;
+    }
+
+    /**
+     * One model round trip; {@code null} when the model is unreachable or returns no JSON.
+     */
+    private Map<String, Object> requestFromOllama(
         ApiEndpointInfo endpointInfo,
         Map<String, Object> contextData
     ) {
         try {
-            String prompt = buildGenerationPrompt(endpointInfo, contextData);
-            
             log.debug("Generating test data with Ollama for: {} {}", 
                 endpointInfo.getMethod(), endpointInfo.getPath());
 
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", ollamaModel);
-            requestBody.put("prompt", prompt);
-            requestBody.put("stream", false);
-            requestBody.put("format", "json");
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                ollamaBaseUrl + "/api/generate",
-                HttpMethod.POST,
-                request,
-                String.class
-            );
+            String generatedText = ollamaClient.generate(buildGenerationPrompt(endpointInfo, contextData));
+            Map<String, Object> generatedData = extractJsonFromResponse(generatedText);
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                JsonNode responseNode = objectMapper.readTree(response.getBody());
-                String generatedText = responseNode.get("response").asText();
-                
-                Map<String, Object> generatedData = extractJsonFromResponse(generatedText);
-                
-                if (generatedData != null && !generatedData.isEmpty()) {
-                    if (contextData != null && !contextData.isEmpty()) {
-                        contextData.forEach(generatedData::putIfAbsent);
-                    }
-                    
-                    log.info("Successfully generated test data with Ollama");
-                    return generatedData;
-                }
+            if (generatedData != null && !generatedData.isEmpty()) {
+                log.info("Successfully generated test data with Ollama");
+                return generatedData;
             }
-
-            log.warn("Ollama returned empty data, using fallback");
-            return generateFallbackData(endpointInfo, contextData);
+            return null;
 
         } catch (Exception e) {
             log.error("Ollama generation failed: {}", e.getMessage());
-            return generateFallbackData(endpointInfo, contextData);
+            return null;
+        }
+    }
+
+    /**
+     * One model round trip for several request bodies; the result has one entry per
+     * endpoint, {@code null} where the model returned nothing usable.
+     */
+    private List<Map<String, Object>> requestBatchFromOllama(List<ApiEndpointInfo> endpoints, boolean variants) {
+        try {
+            log.debug("Generating {} test data bodies with Ollama in one prompt", endpoints.size());
+
+            String generatedText = ollamaClient.generate(buildBatchPrompt(endpoints, variants));
+            List<Map<String, Object>> generated = extractJsonListFromResponse(generatedText, endpoints.size());
+
+            log.info("Generated {} of {} test data bodies with one Ollama call",
+                generated.stream().filter(Objects::nonNull).count(), endpoints.size());
+            return generated;
+
+        } catch (Exception e) {
+            log.error("Ollama batch generation failed: {}", e.getMessage());
+            return new ArrayList<>(Collections.nCopies(endpoints.size(), null));
         }
     }
 
@@ -118,6 +213,48 @@ public class AiTestDataGenerator {
         StringBuilder prompt = new StringBuilder();
         
         prompt.append("Generate realistic JSON test data for a banking API endpoint.\n\n");
+        appendEndpoint(endpointInfo, prompt);
+        
+        if (contextData != null && !contextData.isEmpty()) {
+            prompt.append("\nContext from previous steps (MUST use these values):\n");
+            contextData.forEach((key, value) -> 
+                prompt.append("  ").append(key).append(": ").append(value).append("\n")
+            );
+        }
+        
+        appendValueRules(prompt);
+        prompt.append("\nReturn ONLY the JSON object, no explanations:");
+        
+        return prompt.toString();
+    }
+
+    private String buildBatchPrompt(List<ApiEndpointInfo> endpoints, boolean variants) {
+        StringBuilder prompt = new StringBuilder();
+
+        if (variants) {
+            prompt.append("Generate ").append(endpoints.size())
+                  .append(" different realistic JSON request bodies for a banking API endpoint.\n\n");
+            appendEndpoint(endpoints.get(0), prompt);
+            prompt.append("\nEvery request body must use different values.\n");
+        } else {
+            prompt.append("Generate realistic JSON test data for ").append(endpoints.size())
+                  .append(" banking API endpoints.\n");
+            for (int i = 0; i < endpoints.size(); i++) {
+                prompt.append("\nRequest ").append(i + 1).append(":\n");
+                appendEndpoint(endpoints.get(i), prompt);
+            }
+        }
+
+        appendValueRules(prompt);
+        prompt.append("\nReturn ONLY a JSON object of the form {\"requests\": [...]} holding exactly ")
+              .append(endpoints.size()).append(" request bodies")
+              .append(variants ? "" : " in the order of the requests above")
+              .append(", no explanations:");
+
+        return prompt.toString();
+    }
+
+    private void appendEndpoint(ApiEndpointInfo endpointInfo, StringBuilder prompt) {
         prompt.append("Endpoint: ").append(endpointInfo.getMethod())
               .append(" ").append(endpointInfo.getPath()).append("\n");
         
@@ -129,23 +266,15 @@ public class AiTestDataGenerator {
             prompt.append("\nExpected fields based on schema:\n");
             extractFieldsFromSchema(endpointInfo.getRequestSchema(), prompt, "");
         }
-        
-        if (contextData != null && !contextData.isEmpty()) {
-            prompt.append("\nContext from previous steps (MUST use these values):\n");
-            contextData.forEach((key, value) -> 
-                prompt.append("  ").append(key).append(": ").append(value).append("\n")
-            );
-        }
-        
+    }
+
+    private void appendValueRules(StringBuilder prompt) {
         prompt.append("\nGenerate ONLY valid JSON data. Use realistic banking values:\n");
         prompt.append("- Account numbers: 20 digits starting with 40817\n");
         prompt.append("- Card numbers: 16 digits starting with 4276\n");
         prompt.append("- Amounts: positive numbers with 2 decimals\n");
         prompt.append("- Currency: RUB\n");
         prompt.append("- Dates: ISO 8601 format\n");
-        prompt.append("\nReturn ONLY the JSON object, no explanations:");
-        
-        return prompt.toString();
     }
 
     private void extractFieldsFromSchema(Map<String, Object> schema, StringBuilder prompt, String prefix) {
@@ -168,307 +297,61 @@ public class AiTestDataGenerator {
     }
 
     private Map<String, Object> extractJsonFromResponse(String response) {
-        if (response == null || response.isEmpty()) {
+        String json = JsonObjectScanner.firstObject(response);
+        if (json == null) {
+            log.warn("No JSON object found in model response");
             return new HashMap<>();
         }
 
-        response = response.trim();
-        
-        if (response.startsWith("```json")) {
-            response = response.substring(7);
-        } else if (response.startsWith("```")) {
-            response = response.substring(3);
-        }
-        
-        if (response.endsWith("```")) {
-            response = response.substring(0, response.length() - 3);
-        }
-        
-        response = response.trim();
-        
-        Pattern jsonPattern = Pattern.compile("\\{[^{}]*(?:\\{[^{}]*\\}[^{}]*)*\\}");
-        Matcher matcher = jsonPattern.matcher(response);
-        
-        if (matcher.find()) {
-            String jsonStr = matcher.group();
-            try {
-                return objectMapper.readValue(jsonStr, Map.class);
-            } catch (Exception e) {
-                log.warn("Failed to parse extracted JSON: {}", e.getMessage());
-            }
-        }
-
         try {
-            return objectMapper.readValue(response, Map.class);
+            return objectMapper.readValue(json, Map.class);
         } catch (Exception e) {
-            log.warn("Failed to parse response as JSON: {}", e.getMessage());
+            log.warn("Failed to parse extracted JSON: {}", e.getMessage());
             return new HashMap<>();
         }
     }
 
-    private Map<String, Object> generateFallbackData(
-        ApiEndpointInfo endpointInfo,
-        Map<String, Object> contextData
-    ) {
-        Map<String, Object> data = new HashMap<>();
-        
-        // CRITICAL: Check if this is a redemption POST request FIRST
-        if (endpointInfo != null && 
-            endpointInfo.getPath() != null && 
-            endpointInfo.getPath().contains("redemption") && 
-            "POST".equals(endpointInfo.getMethod())) {
-            
-            Map<String, Object> innerData = new HashMap<>();
-            innerData.put("redemptionReferenceNumber", UUID.randomUUID().toString());
-            innerData.put("redemptionAmount", Double.valueOf(50.0));
-            innerData.put("valuePerPoint", Double.valueOf(0.01));
-            innerData.put("programId", "A7DV56B");
-            innerData.put("catalogId", "C9AP78DS9K");
-            
-            Map<String, Object> wrapper = new HashMap<>();
-            wrapper.put("data", innerData);
-            
-            log.info("Generated fallback redemption data");
-            return wrapper;
-        }
-        
-        // For non-redemption, continue with context
-        if (contextData != null && !contextData.isEmpty()) {
-            data.putAll(contextData);
-        }
-        
-        Map<String, Object> schema = endpointInfo.getRequestSchema();
-        
-        if (schema == null || schema.isEmpty()) {
-            data.putAll(generateDefaultData(endpointInfo));
-            log.info("Generated default data for {}", endpointInfo.getPath());
-            return data;
-        }
-
-        if (schema.containsKey("properties")) {
-            Map<String, Object> properties = (Map<String, Object>) schema.get("properties");
-            
-            properties.forEach((fieldName, fieldSchema) -> {
-                if (data.containsKey(fieldName)) {
-                    return;
-                }
-
-                Object value = generateFieldValue(
-                    fieldName, 
-                    (Map<String, Object>) fieldSchema,
-                    endpointInfo.getRequiredFields() != null && 
-                    endpointInfo.getRequiredFields().contains(fieldName)
-                );
-                
-                if (value != null) {
-                    data.put(fieldName, value);
+    /**
+     * Request bodies from a batched reply: {@code {"requests": [...]}}, a bare array, or a
+     * single object when one body was asked for. Padded with {@code null} to {@code expected}.
+     */
+    private List<Map<String, Object>> extractJsonListFromResponse(String response, int expected) {
+        List<Map<String, Object>> bodies = new ArrayList<>(expected);
+        JsonObjectScanner scanner = JsonObjectScanner.objectOrArray();
+        if (response != null && scanner.feed(response)) {
+            String json = scanner.result();
+            try {
+                JsonNode root = objectMapper.readTree(json);
+                JsonNode items = root.isArray() ? root : root.path("requests");
+                if (items.isArray()) {
+                    for (JsonNode item : items) {
+                        if (bodies.size() == expected) {
+                            break;
+                        }
+                        bodies.add(item.isObject() ? objectMapper.convertValue(item, Map.class) : null);
+                    }
+                } else if (root.isObject() && expected == 1) {
+                    bodies.add(objectMapper.convertValue(root, Map.class));
                 }
-            });
-        } else {
-            data.putAll(generateDefaultData(endpointInfo));
-        }
-
-        log.info("Generated fallback data for {}", endpointInfo.getPath());
-        return data;
-    }
-
-    private Map<String, Object> generateDefaultData(ApiEndpointInfo endpointInfo) {
-        Map<String, Object> data = new HashMap<>();
-        
-        if (endpointInfo == null || endpointInfo.getPath() == null) {
-            return data;
-        }
-
-        String path = endpointInfo.getPath();
-        String method = endpointInfo.getMethod() != null ? endpointInfo.getMethod().toUpperCase() : "GET";
-        
-        log.debug("Generating default data for {} {}", method, path);
-        
-        // CRITICAL: For Rewards Pay API - POST redemption
-        if (path.contains("redemption") && "POST".equals(method)) {
-            Map<String, Object> innerData = new HashMap<>();
-            innerData.put("redemptionReferenceNumber", UUID.randomUUID().toString());
-            innerData.put("redemptionAmount", Double.valueOf(50.0));
-            innerData.put("valuePerPoint", Double.valueOf(0.01));
-            innerData.put("programId", "A7DV56B");
-            innerData.put("catalogId", "C9AP78DS9K");
-            
-            // API requires 'data' wrapper
-            Map<String, Object> wrapper = new HashMap<>();
-            wrapper.put("data", innerData);
-            
-            log.info("Generated redemption request body: {}", wrapper);
-            return wrapper;
-        }
-        
-        // For path variables
-        if (path.contains("{externalAccountID}")) {
-            data.put("externalAccountID", UUID.randomUUID().toString());
-        }
-        if (path.contains("{accountId}") || path.contains("{account_id}")) {
-            String uuid = UUID.randomUUID().toString();
-            data.put("accountId", uuid);
-            data.put("account_id", uuid);
-        }
-        if (path.contains("{cardId}")) {
-            data.put("cardId", "4276" + String.format("%012d", random.nextInt(1000000000)));
-        }
-        if (path.contains("{transactionId}")) {
-            data.put("transactionId", "TXN" + UUID.randomUUID().toString().replace("-", "").substring(0, 15));
-        }
-        if (path.contains("{payment_id}") || path.contains("{paymentId}")) {
-            String uuid = UUID.randomUUID().toString();
-            data.put("payment_id", uuid);
-            data.put("paymentId", uuid);
+            } catch (Exception e) {
+                log.warn("Failed to parse batched response as JSON: {}", e.getMessage());
+            }
         }
-        
-        // Generic POST/PUT/PATCH body for non-redemption
-        if (("POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method)) && data.isEmpty()) {
-            data.put("amount", random.nextInt(10000) + 100);
-            data.put("currency", "RUB");
-            data.put("description", "Test transaction");
+        while (bodies.size() < expected) {
+            bodies.add(null);
         }
-        
-        return data;
+        return bodies;
     }
 
-    private Object generateFieldValue(
-        String fieldName, 
-        Map<String, Object> schema,
-        boolean isRequired
+    /**
+     * Schema-driven data without the model; values are drawn from {@code random}.
+     */
+    public Map<String, Object> generateFallbackData(
+        ApiEndpointInfo endpointInfo,
+        Map<String, Object> contextData,
+        SplittableRandom random
     ) {
-        if (schema == null) {
-            return generateDefaultFieldValue(fieldName);
-        }
-
-        if (!isRequired && random.nextInt(10) < 3) {
-            return null;
-        }
-
-        String type = (String) schema.getOrDefault("type", "string");
-        String format = (String) schema.get("format");
-
-        return switch (type) {
-            case "string" -> generateStringValue(fieldName, format, schema);
-            case "integer" -> generateIntegerValue(fieldName, schema);
-            case "number" -> generateNumberValue(fieldName, schema);
-            case "boolean" -> random.nextBoolean();
-            case "array" -> generateArrayValue(schema);
-            case "object" -> generateObjectValue(schema);
-            default -> generateStringValue(fieldName, format, schema);
-        };
-    }
-
-    private Object generateDefaultFieldValue(String fieldName) {
-        String lowerName = fieldName.toLowerCase();
-        
-        if (lowerName.contains("account") && lowerName.contains("id")) {
-            return "40817810" + String.format("%012d", random.nextInt(1000000000));
-        }
-        if (lowerName.contains("card")) {
-            return "4276" + String.format("%012d", random.nextInt(1000000000));
-        }
-        if (lowerName.contains("amount")) {
-            return random.nextInt(100000) + 100;
-        }
-        if (lowerName.contains("currency")) {
-            return "RUB";
-        }
-        
-        return "test_" + fieldName;
-    }
-
-    private String generateStringValue(String fieldName, String format, Map<String, Object> schema) {
-        String lowerName = fieldName.toLowerCase();
-
-        if (lowerName.contains("account") && lowerName.contains("id")) {
-            return "40817810" + String.format("%012d", random.nextInt(1000000000));
-        }
-        if (lowerName.contains("card") && lowerName.contains("number")) {
-            return "4276" + String.format("%012d", random.nextInt(1000000000));
-        }
-        if (lowerName.contains("phone")) {
-            return "+7" + String.format("%010d", random.nextInt(1000000000));
-        }
-        if (lowerName.contains("email")) {
-            return "test" + random.nextInt(1000) + "@example.com";
-        }
-        if (lowerName.contains("amount") || lowerName.contains("sum")) {
-            return String.valueOf(random.nextInt(100000) + 100);
-        }
-
-        if ("date".equals(format)) {
-            return "2024-" + String.format("%02d", random.nextInt(12) + 1) + "-" + String.format("%02d", random.nextInt(28) + 1);
-        }
-        if ("date-time".equals(format)) {
-            return "2024-01-15T10:30:00Z";
-        }
-        if ("uuid".equals(format)) {
-            return UUID.randomUUID().toString();
-        }
-
-        if (schema.containsKey("enum")) {
-            List<String> enumValues = (List<String>) schema.get("enum");
-            return enumValues.get(random.nextInt(enumValues.size()));
-        }
-
-        return "test_" + fieldName + "_" + random.nextInt(1000);
-    }
-
-    private Integer generateIntegerValue(String fieldName, Map<String, Object> schema) {
-        Integer min = (Integer) schema.get("minimum");
-        Integer max = (Integer) schema.get("maximum");
-
-        if (min != null && max != null) {
-            return min + random.nextInt(max - min + 1);
-        }
-
-        return random.nextInt(10000);
-    }
-
-    private Double generateNumberValue(String fieldName, Map<String, Object> schema) {
-        Number min = (Number) schema.get("minimum");
-        Number max = (Number) schema.get("maximum");
-
-        if (min != null && max != null) {
-            return min.doubleValue() + (max.doubleValue() - min.doubleValue()) * random.nextDouble();
-        }
-
-        return Math.round((random.nextDouble() * 10000) * 100.0) / 100.0;
-    }
-
-    private List<Object> generateArrayValue(Map<String, Object> schema) {
-        Map<String, Object> items = (Map<String, Object>) schema.get("items");
-        if (items == null) {
-            return Collections.emptyList();
-        }
-
-        int arraySize = random.nextInt(3) + 1;
-        List<Object> array = new ArrayList<>();
-
-        for (int i = 0; i < arraySize; i++) {
-            Object item = generateFieldValue("item", items, true);
-            array.add(item);
-        }
-
-        return array;
-    }
-
-    private Map<String, Object> generateObjectValue(Map<String, Object> schema) {
-        Map<String, Object> properties = (Map<String, Object>) schema.get("properties");
-        if (properties == null) {
-            return Collections.emptyMap();
-        }
-
-        Map<String, Object> obj = new HashMap<>();
-        properties.forEach((name, propSchema) -> {
-            Object value = generateFieldValue(name, (Map<String, Object>) propSchema, false);
-            if (value != null) {
-                obj.put(name, value);
-            }
-        });
-
-        return obj;
+        return fallbackData.generate(endpointInfo, contextData, random);
     }
 
     public boolean isAiAvailable() {
@@ -477,18 +360,9 @@ public class AiTestDataGenerator {
         }
 
         if ("ollama".equals(aiProvider)) {
-            try {
-                ResponseEntity<String> response = restTemplate.getForEntity(
-                    ollamaBaseUrl + "/api/tags",
-                    String.class
-                );
-                return response.getStatusCode().is2xxSuccessful();
-            } catch (Exception e) {
-                log.warn("Ollama not available: {}", e.getMessage());
-                return false;
-            }
+            return ollamaClient.isAvailable();
         }
 
         return false;
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,13 @@
 package ru.bankingapi.bpmntester.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.camunda.bpm.model.bpmn.Bpmn;
 import org.camunda.bpm.model.bpmn.BpmnModelInstance;
 import org.camunda.bpm.model.bpmn.instance.*;
 import org.camunda.bpm.model.bpmn.instance.Process;
+import org.camunda.bpm.model.bpmn.instance.camunda.CamundaProperties;
 import org.camunda.bpm.model.bpmn.instance.camunda.CamundaProperty;
 import org.springframework.stereotype.Service;
 import ru.bankingapi.bpmntester.domain.*;
@@ -21,6 +23,10 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BpmnParserService {
 
+    private static final String MAPPING_PROPERTY_PREFIX = "map.";
+
+    private final ObjectMapper objectMapper;
+
     public BusinessProcess parseBpmnXml(String bpmnXml, String processName) {
         try {
             BpmnModelInstance modelInstance = Bpmn.readModelFromStream(
@@ -187,7 +193,7 @@ public class BpmnParserService {
             task.getId(), step.getApiEndpoint(), step.getHttpMethod());
     }
 
-    private void extractApiInfoFromTaskName(String taskName, ProcessStep step) {
+    void extractApiInfoFromTaskName(String taskName, ProcessStep step) {
         if (taskName == null || taskName.isEmpty()) {
             return;
         }
@@ -220,7 +226,7 @@ public class BpmnParserService {
         }
     }
 
-    private void parseApiInfoFromDocumentation(String documentation, ProcessStep step) {
+    void parseApiInfoFromDocumentation(String documentation, ProcessStep step) {
         if (documentation == null || documentation.isBlank()) {
             return;
         }
@@ -249,21 +255,52 @@ public class BpmnParserService {
     }
 
     private void parseApiInfoFromExtensions(ExtensionElements extensions, ProcessStep step) {
+        // Properties are normally wrapped in <camunda:properties>; accept bare ones too
+        List<CamundaProperty> properties = new ArrayList<>(
+            extensions.getElementsQuery().filterByType(CamundaProperty.class).list()
+        );
         extensions.getElementsQuery()
-            .filterByType(CamundaProperty.class)
+            .filterByType(CamundaProperties.class)
             .list()
-            .forEach(prop -> {
-                String name = prop.getCamundaName();
-                String value = prop.getCamundaValue();
-                
-                if ("api.endpoint".equals(name)) {
-                    step.setApiEndpoint(value);
-                } else if ("api.method".equals(name)) {
-                    step.setHttpMethod(value);
-                } else if ("api.spec".equals(name)) {
-                    step.setOpenApiSpec(value);
-                }
-            });
+            .forEach(group -> properties.addAll(group.getCamundaProperties()));
+
+        applyExtensionProperties(
+            properties.stream()
+                .map(prop -> new AbstractMap.SimpleEntry<>(prop.getCamundaName(), prop.getCamundaValue()))
+                .collect(Collectors.toList()),
+            step
+        );
+    }
+
+    /**
+     * Apply {@code api.*} and {@code map.*} extension properties, given as name/value pairs
+     * in document order.
+     */
+    void applyExtensionProperties(List<? extends Map.Entry<String, String>> properties, ProcessStep step) {
+        Map<String, String> dataMapping = new LinkedHashMap<>();
+
+        properties.forEach(prop -> {
+            String name = prop.getKey();
+            String value = prop.getValue();
+            
+            if ("api.endpoint".equals(name)) {
+                step.setApiEndpoint(value);
+            } else if ("api.method".equals(name)) {
+                step.setHttpMethod(value);
+            } else if ("api.spec".equals(name)) {
+                step.setOpenApiSpec(value);
+            } else if (name != null && name.startsWith(MAPPING_PROPERTY_PREFIX) && value != null) {
+                dataMapping.put(name.substring(MAPPING_PROPERTY_PREFIX.length()), value);
+            }
+        });
+
+        if (!dataMapping.isEmpty()) {
+            try {
+                step.setDataMapping(objectMapper.writeValueAsString(dataMapping));
+            } catch (Exception e) {
+                log.warn("Failed to store data mapping for step {}", step.getStepId(), e);
+            }
+        }
     }
 
     private List<ProcessStep> sortByProcessFlow(List<ProcessStep> steps, Process process) {
@@ -271,13 +308,10 @@ public class BpmnParserService {
             return steps;
         }
 
-        Collection<SequenceFlow> flows = process.getModelInstance()
-            .getModelElementsByType(SequenceFlow.class);
-
-        Map<String, String> flowMap = new HashMap<>();
-        for (SequenceFlow flow : flows) {
+        ProcessFlowGraph.Builder graph = ProcessFlowGraph.builder();
+        for (SequenceFlow flow : process.getModelInstance().getModelElementsByType(SequenceFlow.class)) {
             if (flow.getSource() != null && flow.getTarget() != null) {
-                flowMap.put(flow.getSource().getId(), flow.getTarget().getId());
+                graph.addFlow(flow.getSource().getId(), flow.getTarget().getId());
             }
         }
 
@@ -286,7 +320,19 @@ public class BpmnParserService {
         
         StartEvent startEvent = startEvents.stream().findFirst().orElse(null);
 
-        if (startEvent == null) {
+        return orderByFlow(steps, graph.build(), startEvent != null ? startEvent.getId() : null);
+    }
+
+    /**
+     * Order steps topologically along the sequence flows from {@code startEventId};
+     * steps not reachable from it keep their relative order at the end.
+     */
+    List<ProcessStep> orderByFlow(List<ProcessStep> steps, ProcessFlowGraph graph, String startEventId) {
+        if (steps.isEmpty()) {
+            return steps;
+        }
+
+        if (startEventId == null) {
             log.warn("No start event found, returning steps as-is");
             for (int i = 0; i < steps.size(); i++) {
                 steps.get(i).setStepOrder(i);
@@ -294,30 +340,23 @@ public class BpmnParserService {
             return steps;
         }
 
-        List<ProcessStep> orderedSteps = new ArrayList<>();
-        String currentId = startEvent.getId();
-        Set<String> visited = new HashSet<>();
-        int maxIterations = steps.size() * 2;
-        int iterations = 0;
+        Map<String, ProcessStep> stepsById = new HashMap<>();
+        for (ProcessStep step : steps) {
+            stepsById.putIfAbsent(step.getStepId(), step);
+        }
+
+        List<ProcessStep> orderedSteps = new ArrayList<>(steps.size());
+        Set<ProcessStep> placed = Collections.newSetFromMap(new IdentityHashMap<>());
 
-        while (currentId != null && !visited.contains(currentId) && iterations < maxIterations) {
-            visited.add(currentId);
-            iterations++;
-            
-            final String searchId = currentId;
-            Optional<ProcessStep> foundStep = steps.stream()
-                .filter(step -> step.getStepId().equals(searchId))
-                .findFirst();
-            
-            if (foundStep.isPresent()) {
-                orderedSteps.add(foundStep.get());
+        for (String nodeId : graph.topologicalOrder(startEventId)) {
+            ProcessStep step = stepsById.get(nodeId);
+            if (step != null && placed.add(step)) {
+                orderedSteps.add(step);
             }
-
-            currentId = flowMap.get(currentId);
         }
 
         for (ProcessStep step : steps) {
-            if (!orderedSteps.contains(step)) {
+            if (placed.add(step)) {
                 orderedSteps.add(step);
             }
         }
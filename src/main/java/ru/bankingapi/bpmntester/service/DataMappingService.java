@@ -0,0 +1,125 @@
+package ru.bankingapi.bpmntester.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.Option;
+import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
+import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.bankingapi.bpmntester.domain.ProcessStep;
+
+import java.util.*;
+
+/**
+ * Applies the per-step data mappings declared in BPMN ({@code map.<key>} extension
+ * properties, stored as JSON in {@link ProcessStep#getDataMapping()}).
+ * <p>
+ * Each mapping is compiled into a {@link JsonPath} once and evaluated directly
+ * against the parsed step response held by {@link ExecutionContext}. The
+ * {@code data-mapping.max-compiled} most recently used compiled mappings are kept.
+ */
+@Service
+@Slf4j
+public class DataMappingService {
+
+    private final ObjectMapper objectMapper;
+    private final Configuration jsonPathConfig;
+
+    @Value("${data-mapping.max-compiled:256}")
+    private int maxCompiled;
+
+    private final Map<String, List<CompiledMapping>> compiledMappings = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<CompiledMapping>> eldest) {
+            return size() > Math.max(1, maxCompiled);
+        }
+    };
+
+    public DataMappingService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.jsonPathConfig = Configuration.builder()
+            .jsonProvider(new JacksonJsonNodeJsonProvider(objectMapper))
+            .mappingProvider(new JacksonMappingProvider(objectMapper))
+            .options(Option.SUPPRESS_EXCEPTIONS)
+            .build();
+    }
+
+    public boolean hasMappings(ProcessStep step) {
+        return step.getDataMapping() != null && !step.getDataMapping().isBlank();
+    }
+
+    /**
+     * Context keys the step's mappings write.
+     */
+    public List<String> targets(ProcessStep step) {
+        if (!hasMappings(step)) {
+            return List.of();
+        }
+        return compile(step.getDataMapping()).stream().map(CompiledMapping::target).toList();
+    }
+
+    public void apply(ProcessStep step, ExecutionContext context) {
+        JsonNode response = context.getStepResponse(step.getStepId());
+        if (response == null) {
+            return;
+        }
+
+        for (CompiledMapping mapping : compile(step.getDataMapping())) {
+            Object result = mapping.path().read(response, jsonPathConfig);
+            if (result instanceof JsonNode node) {
+                result = context.toValue(node);
+            }
+
+            if (result != null) {
+                context.put(mapping.target(), result);
+                log.debug("Mapped '{}' = {} from step {}", mapping.target(), result, step.getStepId());
+            }
+        }
+    }
+
+    private List<CompiledMapping> compile(String dataMapping) {
+        List<CompiledMapping> cached;
+        synchronized (compiledMappings) {
+            cached = compiledMappings.get(dataMapping);
+        }
+        if (cached != null) {
+            return cached;
+        }
+
+        // Compiled outside the lock; a concurrent compile of the same mapping gives an equal list
+        List<CompiledMapping> compiled = compileUncached(dataMapping);
+        synchronized (compiledMappings) {
+            compiledMappings.put(dataMapping, compiled);
+        }
+        return compiled;
+    }
+
+    private List<CompiledMapping> compileUncached(String json) {
+        Map<String, String> expressions;
+        try {
+            expressions = objectMapper.readValue(json, new TypeReference<LinkedHashMap<String, String>>() {});
+        } catch (Exception e) {
+            log.warn("Invalid data mapping '{}': {}", json, e.getMessage());
+            return List.of();
+        }
+
+        List<CompiledMapping> compiled = new ArrayList<>(expressions.size());
+        expressions.forEach((target, expression) -> {
+            try {
+                compiled.add(new CompiledMapping(target, JsonPath.compile(expression)));
+            } catch (InvalidPathException | IllegalArgumentException e) {
+                log.warn("Skipping mapping '{}': invalid JSONPath '{}': {}", target, expression, e.getMessage());
+            }
+        });
+        return List.copyOf(compiled);
+    }
+
+    private record CompiledMapping(String target, JsonPath path) {
+    }
+}
@@ -0,0 +1,197 @@
+package ru.bankingapi.bpmntester.service;
+
+import ru.bankingapi.bpmntester.domain.ApiEndpointInfo;
+
+import java.util.*;
+
+/**
+ * Inverted token index over the endpoints of one OpenAPI spec.
+ * <p>
+ * Built once per spec and reused for every step that needs matching. Each term
+ * maps to the endpoints containing it with a precomputed TF-IDF weight, so a
+ * lookup only touches endpoints that share at least one term with the query.
+ * Path and operationId tokens weigh more than summary and description tokens.
+ * An exact operationId mention in the task text adds a fixed bonus.
+ * <p>
+ * Terms are lowercased and cut to {@value #STEM_LENGTH} characters, which is a
+ * cheap stand-in for stemming ("accounts"/"account", "счета"/"счет").
+ * Immutable after construction and safe to share between threads.
+ */
+public class EndpointIndex {
+
+    private static final int STEM_LENGTH = 6;
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final double OPERATION_ID_BONUS = 5.0;
+
+    private static final double PATH_WEIGHT = 2.0;
+    private static final double OPERATION_ID_WEIGHT = 2.0;
+    private static final double SUMMARY_WEIGHT = 1.5;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    private final List<ApiEndpointInfo> endpoints;
+    private final Map<String, Posting> postings;
+    private final Map<String, int[]> operationIds;
+
+    public EndpointIndex(List<ApiEndpointInfo> endpoints) {
+        this.endpoints = List.copyOf(endpoints);
+
+        List<Map<String, Double>> termFrequencies = new ArrayList<>(this.endpoints.size());
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        Map<String, List<Integer>> byOperationId = new HashMap<>();
+
+        for (int i = 0; i < this.endpoints.size(); i++) {
+            ApiEndpointInfo endpoint = this.endpoints.get(i);
+            Map<String, Double> tf = new HashMap<>();
+            addTerms(tf, endpoint.getPath(), PATH_WEIGHT);
+            addTerms(tf, endpoint.getOperationId(), OPERATION_ID_WEIGHT);
+            addTerms(tf, endpoint.getSummary(), SUMMARY_WEIGHT);
+            addTerms(tf, endpoint.getDescription(), DESCRIPTION_WEIGHT);
+            termFrequencies.add(tf);
+            tf.keySet().forEach(term -> documentFrequency.merge(term, 1, Integer::sum));
+
+            if (endpoint.getOperationId() != null && !endpoint.getOperationId().isBlank()) {
+                byOperationId.computeIfAbsent(endpoint.getOperationId().toLowerCase(Locale.ROOT), k -> new ArrayList<>())
+                    .add(i);
+            }
+        }
+
+        Map<String, PostingBuilder> builders = new HashMap<>();
+        int total = this.endpoints.size();
+        for (int i = 0; i < total; i++) {
+            Map<String, Double> tf = termFrequencies.get(i);
+            double norm = Math.sqrt(tf.size());
+            for (Map.Entry<String, Double> entry : tf.entrySet()) {
+                double idf = Math.log(1.0 + (double) total / documentFrequency.get(entry.getKey()));
+                builders.computeIfAbsent(entry.getKey(), k -> new PostingBuilder())
+                    .add(i, entry.getValue() * idf / norm);
+            }
+        }
+
+        Map<String, Posting> built = new HashMap<>(builders.size() * 2);
+        builders.forEach((term, builder) -> built.put(term, builder.build()));
+        this.postings = built;
+
+        Map<String, int[]> operations = new HashMap<>();
+        byOperationId.forEach((id, list) -> operations.put(id, list.stream().mapToInt(Integer::intValue).toArray()));
+        this.operationIds = operations;
+    }
+
+    public int size() {
+        return endpoints.size();
+    }
+
+    public List<ApiEndpointInfo> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Best endpoint for the task text. Falls back to the first endpoint when no
+     * term matches; returns {@code null} only for an empty index.
+     */
+    public ApiEndpointInfo findBestMatch(String taskName, String taskDescription) {
+        if (endpoints.isEmpty()) {
+            return null;
+        }
+
+        String searchText = (taskName != null ? taskName : "") + " "
+            + (taskDescription != null ? taskDescription : "");
+
+        Map<Integer, Double> scores = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (String term : tokenize(searchText)) {
+            if (!seen.add(term)) {
+                continue;
+            }
+            Posting posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            for (int j = 0; j < posting.ids().length; j++) {
+                scores.merge(posting.ids()[j], posting.weights()[j], Double::sum);
+            }
+        }
+
+        for (String word : searchText.split("[^\\p{L}\\p{N}_-]+")) {
+            int[] matches = operationIds.get(word.toLowerCase(Locale.ROOT));
+            if (matches != null) {
+                for (int id : matches) {
+                    scores.merge(id, OPERATION_ID_BONUS, Double::sum);
+                }
+            }
+        }
+
+        int best = 0;
+        double bestScore = 0;
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            int id = entry.getKey();
+            double score = entry.getValue();
+            if (score > bestScore || (score == bestScore && score > 0 && id < best)) {
+                best = id;
+                bestScore = score;
+            }
+        }
+        return endpoints.get(best);
+    }
+
+    private static void addTerms(Map<String, Double> tf, String text, double weight) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        for (String term : tokenize(text)) {
+            tf.merge(term, weight, Double::sum);
+        }
+    }
+
+    /**
+     * Split on non-alphanumerics and camelCase boundaries, lowercase and stem.
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        char previous = 0;
+
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            boolean alphanumeric = Character.isLetterOrDigit(c);
+            boolean camelBoundary = alphanumeric && Character.isUpperCase(c) && Character.isLowerCase(previous);
+
+            if (!alphanumeric || camelBoundary) {
+                addTerm(terms, current);
+                current.setLength(0);
+            }
+            if (alphanumeric) {
+                current.append(Character.toLowerCase(c));
+            }
+            previous = c;
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, StringBuilder token) {
+        if (token.length() < MIN_TERM_LENGTH) {
+            return;
+        }
+        terms.add(token.length() > STEM_LENGTH ? token.substring(0, STEM_LENGTH) : token.toString());
+    }
+
+    private record Posting(int[] ids, double[] weights) {
+    }
+
+    private static final class PostingBuilder {
+
+        private final List<Integer> ids = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+
+        void add(int id, double weight) {
+            ids.add(id);
+            weights.add(weight);
+        }
+
+        Posting build() {
+            return new Posting(
+                ids.stream().mapToInt(Integer::intValue).toArray(),
+                weights.stream().mapToDouble(Double::doubleValue).toArray()
+            );
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package ru.bankingapi.bpmntester.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.bankingapi.bpmntester.domain.*;
+import ru.bankingapi.bpmntester.repository.BusinessProcessRepository;
+import ru.bankingapi.bpmntester.repository.ExecutionMetricRollupRepository;
+import ru.bankingapi.bpmntester.repository.StepMetricRollupRepository;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Success rates, trends, per-step latency percentiles and error classes across
+ * all executions of a process in a time window.
+ * <p>
+ * Execution counts and trends come from the per-minute {@link ExecutionMetricRollup}
+ * rows, step latencies and error classes from the {@link StepMetricRollup} rows, so
+ * neither executions nor step results are scanned and archived runs stay counted. Percentiles come from a
+ * {@link LatencyHistogram} filled with the rollups' per-bucket counts.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ExecutionAnalyticsService {
+
+    private static final int DEFAULT_WINDOW_DAYS = 30;
+
+    private final BusinessProcessRepository processRepository;
+    private final ExecutionMetricRollupRepository executionRollupRepository;
+    private final StepMetricRollupRepository rollupRepository;
+
+    @Transactional(readOnly = true)
+    public ProcessAnalytics analyze(Long processId, LocalDateTime from, LocalDateTime to, AnalyticsBucket bucket) {
+        BusinessProcess process = processRepository.findById(processId)
+            .orElseThrow(() -> new IllegalArgumentException("Process not found: " + processId));
+
+        LocalDateTime windowEnd = to != null ? to : LocalDateTime.now();
+        LocalDateTime windowStart = from != null ? from : windowEnd.minusDays(DEFAULT_WINDOW_DAYS);
+        AnalyticsBucket trendBucket = bucket != null ? bucket : AnalyticsBucket.DAY;
+
+        Map<ExecutionStatus, Long> statusCounts = new EnumMap<>(ExecutionStatus.class);
+        for (Object[] row : executionRollupRepository.countByStatus(processId, windowStart, windowEnd)) {
+            statusCounts.put((ExecutionStatus) row[0], toLong(row[1]));
+        }
+        long total = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        long completed = statusCounts.getOrDefault(ExecutionStatus.COMPLETED, 0L);
+        long failed = statusCounts.getOrDefault(ExecutionStatus.FAILED, 0L);
+
+        ProcessAnalytics analytics = ProcessAnalytics.builder()
+            .processId(processId)
+            .processName(process.getName())
+            .from(windowStart)
+            .to(windowEnd)
+            .bucket(trendBucket)
+            .totalExecutions(total)
+            .completedExecutions(completed)
+            .failedExecutions(failed)
+            .successRate(ratio(completed, total))
+            .statusCounts(statusCounts)
+            .trend(trend(processId, windowStart, windowEnd, trendBucket))
+            .steps(stepStats(processId, windowStart, windowEnd))
+            .errors(errorClasses(processId, windowStart, windowEnd))
+            .build();
+
+        log.info("Analytics for process {}: {} executions between {} and {}", processId, total, windowStart, windowEnd);
+        return analytics;
+    }
+
+    /**
+     * Write the analytics as a CSV report with summary, trend, step and error sections.
+     */
+    public void writeCsv(ProcessAnalytics analytics, OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        csv.append("Process ID,Process Name,From,To,Executions,Completed,Failed,Success Rate\n");
+        csv.append(String.valueOf(analytics.getProcessId())).append(",");
+        csv.append(csvEscape(analytics.getProcessName())).append(",");
+        csv.append(String.valueOf(analytics.getFrom())).append(",");
+        csv.append(String.valueOf(analytics.getTo())).append(",");
+        csv.append(String.valueOf(analytics.getTotalExecutions())).append(",");
+        csv.append(String.valueOf(analytics.getCompletedExecutions())).append(",");
+        csv.append(String.valueOf(analytics.getFailedExecutions())).append(",");
+        csv.append(format(analytics.getSuccessRate())).append("\n\n");
+
+        csv.append("Bucket Start,Executions,Completed,Failed,Success Rate\n");
+        for (ProcessAnalytics.TrendPoint point : analytics.getTrend()) {
+            csv.append(String.valueOf(point.getBucketStart())).append(",");
+            csv.append(String.valueOf(point.getExecutions())).append(",");
+            csv.append(String.valueOf(point.getCompleted())).append(",");
+            csv.append(String.valueOf(point.getFailed())).append(",");
+            csv.append(format(point.getSuccessRate())).append("\n");
+        }
+
+        csv.append("\nStep ID,Step Name,Executions,Errors,Error Rate,Avg (ms),P50 (ms),P90 (ms),P95 (ms),P99 (ms),Max (ms)\n");
+        for (ProcessAnalytics.StepStats step : analytics.getSteps()) {
+            csv.append(csvEscape(step.getStepId())).append(",");
+            csv.append(csvEscape(step.getStepName())).append(",");
+            csv.append(String.valueOf(step.getExecutions())).append(",");
+            csv.append(String.valueOf(step.getErrors())).append(",");
+            csv.append(format(step.getErrorRate())).append(",");
+            csv.append(format(step.getAvgMs())).append(",");
+            csv.append(format(step.getP50Ms())).append(",");
+            csv.append(format(step.getP90Ms())).append(",");
+            csv.append(format(step.getP95Ms())).append(",");
+            csv.append(format(step.getP99Ms())).append(",");
+            csv.append(format(step.getMaxMs())).append("\n");
+        }
+
+        csv.append("\nError Class,Count\n");
+        for (ProcessAnalytics.ErrorClassCount error : analytics.getErrors()) {
+            csv.append(error.getErrorClass()).append(",").append(String.valueOf(error.getCount())).append("\n");
+        }
+
+        csv.flush();
+    }
+
+    private List<ProcessAnalytics.TrendPoint> trend(
+        Long processId,
+        LocalDateTime from,
+        LocalDateTime to,
+        AnalyticsBucket bucket
+    ) {
+        List<ProcessAnalytics.TrendPoint> points = new ArrayList<>();
+        boolean hourly = bucket == AnalyticsBucket.HOUR;
+        List<Object[]> rows = hourly
+            ? executionRollupRepository.hourlyTrend(processId, from, to)
+            : executionRollupRepository.dailyTrend(processId, from, to);
+
+        for (Object[] row : rows) {
+            int offset = hourly ? 4 : 3;
+            LocalDateTime bucketStart = LocalDateTime.of(
+                toInt(row[0]), toInt(row[1]), toInt(row[2]), hourly ? toInt(row[3]) : 0, 0
+            );
+            long executions = toLong(row[offset]);
+            long completed = toLong(row[offset + 1]);
+
+            points.add(ProcessAnalytics.TrendPoint.builder()
+                .bucketStart(bucketStart)
+                .executions(executions)
+                .completed(completed)
+                .failed(toLong(row[offset + 2]))
+                .successRate(ratio(completed, executions))
+                .build());
+        }
+        return points;
+    }
+
+    private List<ProcessAnalytics.StepStats> stepStats(Long processId, LocalDateTime from, LocalDateTime to) {
+        Map<String, StepAccumulator> accumulators = new LinkedHashMap<>();
+
+        for (Object[] row : rollupRepository.stepBuckets(processId, from, to)) {
+            StepAccumulator step = accumulators.computeIfAbsent(
+                (String) row[0], stepId -> new StepAccumulator(stepId, (String) row[1])
+            );
+            int bucket = toInt(row[2]);
+            long samples = toLong(row[3]);
+            step.executions += samples;
+            step.errors += toLong(row[4]);
+            if (bucket != StepMetricRollup.UNTIMED) {
+                step.latencySumMs += toLong(row[5]);
+                step.histogram.add(bucket, samples, toLong(row[6]));
+            }
+        }
+
+        List<ProcessAnalytics.StepStats> steps = new ArrayList<>();
+        for (StepAccumulator step : accumulators.values()) {
+            LatencyHistogram histogram = step.histogram;
+            boolean timed = histogram.getTotal() > 0;
+
+            steps.add(ProcessAnalytics.StepStats.builder()
+                .stepId(step.stepId)
+                .stepName(step.stepName)
+                .executions(step.executions)
+                .errors(step.errors)
+                .errorRate(ratio(step.errors, step.executions))
+                .avgMs(timed ? (double) step.latencySumMs / histogram.getTotal() : null)
+                .p50Ms(histogram.percentile(0.50))
+                .p90Ms(histogram.percentile(0.90))
+                .p95Ms(histogram.percentile(0.95))
+                .p99Ms(histogram.percentile(0.99))
+                .maxMs(timed ? histogram.getMax() : null)
+                .build());
+        }
+        return steps;
+    }
+
+    private List<ProcessAnalytics.ErrorClassCount> errorClasses(Long processId, LocalDateTime from, LocalDateTime to) {
+        List<ProcessAnalytics.ErrorClassCount> errors = new ArrayList<>();
+        for (Object[] row : rollupRepository.countErrorsByClass(processId, from, to)) {
+            errors.add(ProcessAnalytics.ErrorClassCount.builder()
+                .errorClass((String) row[0])
+                .count(toLong(row[1]))
+                .build());
+        }
+        errors.sort(Comparator.comparingLong(ProcessAnalytics.ErrorClassCount::getCount).reversed()
+            .thenComparing(ProcessAnalytics.ErrorClassCount::getErrorClass));
+        return errors;
+    }
+
+    private Double ratio(long part, long total) {
+        return total > 0 ? (double) part / total : null;
+    }
+
+    private long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+
+    private int toInt(Object value) {
+        return ((Number) value).intValue();
+    }
+
+    private String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Double d) {
+            return String.format(Locale.ROOT, "%.4f", d);
+        }
+        return value.toString();
+    }
+
+    private String csvEscape(String text) {
+        if (text == null) return "";
+        if (text.contains(",") || text.contains("\"") || text.contains("\n")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    private static final class StepAccumulator {
+        private final String stepId;
+        private final String stepName;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long executions;
+        private long errors;
+        private long latencySumMs;
+
+        private StepAccumulator(String stepId, String stepName) {
+            this.stepId = stepId;
+            this.stepName = stepName;
+        }
+    }
+}
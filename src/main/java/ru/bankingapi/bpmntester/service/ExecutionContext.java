@@ -0,0 +1,191 @@
+package ru.bankingapi.bpmntester.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+
+/**
+ * Data flowing between the steps of one execution.
+ * <p>
+ * Holds two kinds of entries: plain values (initial context and fields promoted
+ * from responses) and per-step scopes that keep the raw response of a step.
+ * A scope is parsed only when something resolves a path into it, and only the
+ * resolved value is materialized. Keys of the form {@code <stepId>_<path>} resolve
+ * through the matching scope, so {@code Task_1_data.accountId} reads
+ * {@code data.accountId} from the response of step {@code Task_1}.
+ * <p>
+ * {@link #snapshot()} is copy-on-write: both contexts share their maps until one
+ * of them is modified, which makes it cheap to hand a context to a parallel branch.
+ * A single instance is not thread-safe.
+ */
+@Slf4j
+public class ExecutionContext {
+
+    private final ObjectMapper objectMapper;
+
+    private Map<String, Object> values;
+    private Map<String, StepScope> scopes;
+    private boolean ownsValues = true;
+    private boolean ownsScopes = true;
+
+    public ExecutionContext(ObjectMapper objectMapper, Map<String, Object> initialValues) {
+        this.objectMapper = objectMapper;
+        this.values = initialValues != null ? new HashMap<>(initialValues) : new HashMap<>();
+        this.scopes = new HashMap<>();
+    }
+
+    private ExecutionContext(ExecutionContext source) {
+        this.objectMapper = source.objectMapper;
+        this.values = source.values;
+        this.scopes = source.scopes;
+        this.ownsValues = false;
+        this.ownsScopes = false;
+    }
+
+    public ExecutionContext snapshot() {
+        ownsValues = false;
+        ownsScopes = false;
+        return new ExecutionContext(this);
+    }
+
+    public void put(String key, Object value) {
+        if (!ownsValues) {
+            values = new HashMap<>(values);
+            ownsValues = true;
+        }
+        values.put(key, value);
+    }
+
+    public void putStepResponse(String stepId, String responsePayload) {
+        if (stepId == null || responsePayload == null || responsePayload.isBlank()) {
+            return;
+        }
+        if (!ownsScopes) {
+            scopes = new HashMap<>(scopes);
+            ownsScopes = true;
+        }
+        scopes.put(stepId, new StepScope(responsePayload));
+    }
+
+    /**
+     * Look up a plain value, falling back to {@code <stepId>_<path>} resolution.
+     */
+    public Object get(String key) {
+        if (key == null) {
+            return null;
+        }
+        Object value = values.get(key);
+        if (value != null || values.containsKey(key)) {
+            return value;
+        }
+
+        int separator = key.indexOf('_');
+        while (separator > 0) {
+            String stepId = key.substring(0, separator);
+            if (scopes.containsKey(stepId)) {
+                return resolve(stepId, key.substring(separator + 1));
+            }
+            separator = key.indexOf('_', separator + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Resolve a dotted path (e.g. {@code data.accountId}) in a step's response.
+     */
+    public Object resolve(String stepId, String path) {
+        JsonNode node = getStepResponse(stepId);
+        if (node == null || path == null || path.isEmpty()) {
+            return null;
+        }
+
+        for (String segment : path.split("\\.")) {
+            node = node.isArray() && isIndex(segment) ? node.get(Integer.parseInt(segment)) : node.get(segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        return toValue(node);
+    }
+
+    public JsonNode getStepResponse(String stepId) {
+        StepScope scope = scopes.get(stepId);
+        return scope != null ? scope.parsed(objectMapper) : null;
+    }
+
+    /**
+     * The values of {@code keys} the context can resolve (see {@link #get}); nothing
+     * else is materialized.
+     */
+    public Map<String, Object> select(Collection<String> keys) {
+        Map<String, Object> selected = new HashMap<>();
+        for (String key : keys) {
+            Object value = get(key);
+            if (value != null) {
+                selected.put(key, value);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Plain values only; step scopes are never copied into the view.
+     */
+    public Map<String, Object> values() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    public Set<String> stepIds() {
+        return Collections.unmodifiableSet(scopes.keySet());
+    }
+
+    Object toValue(JsonNode node) {
+        if (node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+        if (node.isTextual()) {
+            return node.textValue();
+        }
+        if (node.isNumber()) {
+            return node.numberValue();
+        }
+        if (node.isBoolean()) {
+            return node.booleanValue();
+        }
+        return objectMapper.convertValue(node, Object.class);
+    }
+
+    private boolean isIndex(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return !segment.isEmpty();
+    }
+
+    private static final class StepScope {
+
+        private final String payload;
+        private JsonNode parsed;
+        private boolean parseAttempted;
+
+        private StepScope(String payload) {
+            this.payload = payload;
+        }
+
+        synchronized JsonNode parsed(ObjectMapper objectMapper) {
+            if (!parseAttempted) {
+                parseAttempted = true;
+                try {
+                    parsed = objectMapper.readTree(payload);
+                } catch (Exception e) {
+                    log.debug("Step response is not JSON: {}", e.getMessage());
+                }
+            }
+            return parsed;
+        }
+    }
+}
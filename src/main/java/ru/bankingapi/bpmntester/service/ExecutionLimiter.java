@@ -0,0 +1,69 @@
+package ru.bankingapi.bpmntester.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the number of test executions running at once.
+ * <p>
+ * A permit is taken before the execution's transaction opens, so waiting requests
+ * hold no database connection and the pool sized in {@code DataSourcePoolConfig}
+ * always has room for the running executions' inner transactions.
+ */
+@Service
+@Slf4j
+public class ExecutionLimiter {
+
+    private final TransactionTemplate transactionTemplate;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long queueTimeoutSeconds;
+
+    public ExecutionLimiter(
+        PlatformTransactionManager transactionManager,
+        @Value("${test-execution.max-concurrent:8}") int maxConcurrent,
+        @Value("${test-execution.queue-timeout-seconds:60}") long queueTimeoutSeconds
+    ) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.permits = new Semaphore(this.maxConcurrent, true);
+        this.queueTimeoutSeconds = queueTimeoutSeconds;
+    }
+
+    /**
+     * Run {@code work} in a new transaction once a permit is free.
+     */
+    public <T> T inTransaction(Supplier<T> work) {
+        try {
+            if (!permits.tryAcquire(queueTimeoutSeconds, TimeUnit.SECONDS)) {
+                throw new BusyException(
+                    "Too many concurrent executions (" + maxConcurrent + "), try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusyException("Interrupted while waiting for an execution slot");
+        }
+
+        try {
+            return transactionTemplate.execute(status -> work.get());
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * No execution slot became free within {@code test-execution.queue-timeout-seconds}.
+     */
+    public static class BusyException extends RuntimeException {
+        public BusyException(String message) {
+            super(message);
+        }
+    }
+}
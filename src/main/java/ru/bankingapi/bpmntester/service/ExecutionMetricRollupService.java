@@ -0,0 +1,82 @@
+package ru.bankingapi.bpmntester.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.bankingapi.bpmntester.domain.ExecutionMetricRollup;
+import ru.bankingapi.bpmntester.domain.ExecutionStatus;
+import ru.bankingapi.bpmntester.repository.ExecutionMetricRollupRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Keeps {@link ExecutionMetricRollup} rows up to date as executions start and finish.
+ * <p>
+ * A started execution is counted under its initial status; when it finishes it is moved
+ * to the final one, both in the minute it started. Inserts race on the unique key and
+ * retry the same way as {@link StepMetricRollupService}, and a failure here never fails
+ * the execution. Rehydrated executions are not counted again: their original run
+ * already is.
+ */
+@Service
+@Slf4j
+public class ExecutionMetricRollupService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ExecutionMetricRollupRepository rollupRepository;
+    private final TransactionTemplate rollupTransaction;
+
+    @Value("${analytics.rollups.enabled:true}")
+    private boolean enabled;
+
+    public ExecutionMetricRollupService(ExecutionMetricRollupRepository rollupRepository,
+                                        PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.rollupTransaction = new TransactionTemplate(transactionManager);
+        this.rollupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Move one execution started at {@code startedAt} from status {@code from} ({@code null}
+     * for a new execution) to {@code to}.
+     */
+    public void record(Long processId, LocalDateTime startedAt, ExecutionStatus from, ExecutionStatus to) {
+        if (!enabled || processId == null || from == to) {
+            return;
+        }
+
+        LocalDateTime minute = (startedAt != null ? startedAt : LocalDateTime.now()).truncatedTo(ChronoUnit.MINUTES);
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                rollupTransaction.executeWithoutResult(status -> {
+                    if (from != null) {
+                        rollupRepository.increment(processId, minute, from, -1);
+                    }
+                    if (rollupRepository.increment(processId, minute, to, 1) == 0) {
+                        rollupRepository.saveAndFlush(ExecutionMetricRollup.builder()
+                            .processId(processId)
+                            .minuteStart(minute)
+                            .status(to)
+                            .executionCount(1)
+                            .build());
+                    }
+                });
+                return;
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Concurrent rollup insert for process {} at {}, retrying ({}/{})",
+                    processId, minute, attempt, MAX_ATTEMPTS);
+            } catch (Exception e) {
+                log.warn("Failed to update execution metrics for process {}: {}", processId, e.getMessage());
+                return;
+            }
+        }
+        log.warn("Gave up updating execution metrics for process {} at {}", processId, minute);
+    }
+}
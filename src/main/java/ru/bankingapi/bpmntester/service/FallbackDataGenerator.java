@@ -0,0 +1,391 @@
+package ru.bankingapi.bpmntester.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.bankingapi.bpmntester.domain.ApiEndpointInfo;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Schema-driven request bodies used when the model is off, failing or has no pooled
+ * body ready.
+ * <p>
+ * The request schema of an endpoint is compiled once into a {@link PayloadFactory}: a
+ * tree of value generators with field names classified, enums and bounds resolved and
+ * optional fields marked, so producing a body only draws random numbers and fills
+ * maps. All values come from the {@link SplittableRandom} passed in; an execution
+ * seeds one per run, so the same seed and process give the same bodies. Factories are
+ * thread-safe; a random is not, so each thread needs its own (see
+ * {@link SplittableRandom#split()}).
+ * <p>
+ * Factories are looked up by method, path and {@link ApiEndpointInfo#getSchemaKey()},
+ * so a lookup never walks the schema and takes no lock. At most
+ * {@code ai.fallback.max-compiled} are kept; past that, arbitrary ones are dropped and
+ * compiled again when next needed, since the bound is there for memory, not reuse.
+ */
+@Service
+@Slf4j
+public class FallbackDataGenerator {
+
+    /** Share of optional fields left out of a body, in tenths. */
+    private static final int OPTIONAL_OMITTED_TENTHS = 3;
+
+    @Value("${ai.fallback.max-compiled:1024}")
+    private int maxCompiled;
+
+    private final Map<FactoryKey, PayloadFactory> factories = new ConcurrentHashMap<>();
+
+    private final AtomicLong compiled = new AtomicLong();
+
+    /**
+     * A body for the endpoint with the context values in it; see {@link #factoryFor}.
+     */
+    public Map<String, Object> generate(
+        ApiEndpointInfo endpointInfo,
+        Map<String, Object> contextData,
+        SplittableRandom random
+    ) {
+        Map<String, Object> data = factoryFor(endpointInfo).create(contextData, random);
+        log.debug("Generated fallback data for {}", endpointInfo.getPath());
+        return data;
+    }
+
+    /**
+     * The compiled factory for the endpoint's method, path and request schema.
+     */
+    public PayloadFactory factoryFor(ApiEndpointInfo endpointInfo) {
+        FactoryKey key = new FactoryKey(endpointInfo.getMethod(), endpointInfo.getPath(), endpointInfo.getSchemaKey());
+        PayloadFactory factory = factories.get(key);
+        if (factory != null) {
+            return factory;
+        }
+
+        // A concurrent compile of the same key keeps the first factory
+        PayloadFactory fresh = compile(endpointInfo);
+        compiled.incrementAndGet();
+        factory = factories.putIfAbsent(key, fresh);
+        if (factory != null) {
+            return factory;
+        }
+        Iterator<FactoryKey> victims = factories.keySet().iterator();
+        while (factories.size() > Math.max(1, maxCompiled) && victims.hasNext()) {
+            FactoryKey victim = victims.next();
+            if (!victim.equals(key)) {
+                victims.remove();
+            }
+        }
+        return fresh;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("factories", factories.size());
+        stats.put("maxFactories", maxCompiled);
+        stats.put("compiled", compiled.get());
+        return stats;
+    }
+
+    public void clear() {
+        factories.clear();
+    }
+
+    /**
+     * A random (version 4) UUID drawn from {@code random}.
+     */
+    public static String uuid(SplittableRandom random) {
+        long high = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long low = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(high, low).toString();
+    }
+
+    /**
+     * Produces request bodies for one endpoint.
+     */
+    @FunctionalInterface
+    public interface PayloadFactory {
+
+        /**
+         * A new body; {@code contextData} (may be {@code null}) is copied in and the
+         * fields it already has are not generated.
+         */
+        Map<String, Object> create(Map<String, Object> contextData, SplittableRandom random);
+    }
+
+    private PayloadFactory compile(ApiEndpointInfo endpointInfo) {
+        String path = endpointInfo.getPath();
+        String method = endpointInfo.getMethod();
+
+        if (path != null && path.contains("redemption") && "POST".equals(method)) {
+            return (contextData, random) -> redemptionBody(random);
+        }
+
+        Map<String, Object> schema = endpointInfo.getRequestSchema();
+        Map<String, Object> properties = schema != null ? asSchema(schema.get("properties")) : null;
+        if (properties == null) {
+            PayloadFactory defaults = compileDefaults(path, method);
+            return (contextData, random) -> {
+                Map<String, Object> data = copyOf(contextData, 8);
+                data.putAll(defaults.create(null, random));
+                return data;
+            };
+        }
+
+        List<String> required = endpointInfo.getRequiredFields() != null
+            ? endpointInfo.getRequiredFields()
+            : List.of();
+        Field[] fields = compileFields(properties, required::contains);
+        return (contextData, random) -> {
+            Map<String, Object> data = copyOf(contextData, fields.length);
+            for (Field field : fields) {
+                if (!data.containsKey(field.name)) {
+                    field.putInto(data, random);
+                }
+            }
+            return data;
+        };
+    }
+
+    private static Map<String, Object> redemptionBody(SplittableRandom random) {
+        Map<String, Object> innerData = new LinkedHashMap<>();
+        innerData.put("redemptionReferenceNumber", uuid(random));
+        innerData.put("redemptionAmount", 50.0);
+        innerData.put("valuePerPoint", 0.01);
+        innerData.put("programId", "A7DV56B");
+        innerData.put("catalogId", "C9AP78DS9K");
+
+        // API requires 'data' wrapper
+        Map<String, Object> wrapper = new LinkedHashMap<>();
+        wrapper.put("data", innerData);
+        return wrapper;
+    }
+
+    /**
+     * Body for an endpoint without a usable schema: path variables, plus a generic
+     * payment for write methods that have none.
+     */
+    private static PayloadFactory compileDefaults(String path, String method) {
+        if (path == null) {
+            return (contextData, random) -> new LinkedHashMap<>();
+        }
+        String verb = method != null ? method.toUpperCase(Locale.ROOT) : "GET";
+        boolean externalAccountId = path.contains("{externalAccountID}");
+        boolean accountId = path.contains("{accountId}") || path.contains("{account_id}");
+        boolean cardId = path.contains("{cardId}");
+        boolean transactionId = path.contains("{transactionId}");
+        boolean paymentId = path.contains("{payment_id}") || path.contains("{paymentId}");
+        boolean genericBody = ("POST".equals(verb) || "PUT".equals(verb) || "PATCH".equals(verb))
+            && !(externalAccountId || accountId || cardId || transactionId || paymentId);
+
+        return (contextData, random) -> {
+            Map<String, Object> data = new LinkedHashMap<>();
+            if (externalAccountId) {
+                data.put("externalAccountID", uuid(random));
+            }
+            if (accountId) {
+                String uuid = uuid(random);
+                data.put("accountId", uuid);
+                data.put("account_id", uuid);
+            }
+            if (cardId) {
+                data.put("cardId", digits("4276", random.nextInt(1_000_000_000), 12));
+            }
+            if (transactionId) {
+                data.put("transactionId", "TXN" + uuid(random).replace("-", "").substring(0, 15));
+            }
+            if (paymentId) {
+                String uuid = uuid(random);
+                data.put("payment_id", uuid);
+                data.put("paymentId", uuid);
+            }
+            if (genericBody) {
+                data.put("amount", random.nextInt(10_000) + 100);
+                data.put("currency", "RUB");
+                data.put("description", "Test transaction");
+            }
+            return data;
+        };
+    }
+
+    private static Field[] compileFields(Map<String, Object> properties, Predicate<String> required) {
+        List<Field> fields = new ArrayList<>(properties.size());
+        properties.forEach((name, fieldSchema) -> fields.add(compileField(name, asSchema(fieldSchema), required.test(name))));
+        return fields.toArray(Field[]::new);
+    }
+
+    private static Field compileField(String name, Map<String, Object> schema, boolean required) {
+        if (schema == null) {
+            // Without a schema the name alone decides, and the field is always sent
+            return new Field(name, compileByName(name), true);
+        }
+        return new Field(name, compileValue(name, schema), required);
+    }
+
+    private static ValueFactory compileValue(String fieldName, Map<String, Object> schema) {
+        Object type = schema.getOrDefault("type", "string");
+        return switch (String.valueOf(type)) {
+            case "integer" -> compileInteger(schema);
+            case "number" -> compileNumber(schema);
+            case "boolean" -> SplittableRandom::nextBoolean;
+            case "array" -> compileArray(schema);
+            case "object" -> compileObject(schema);
+            default -> compileString(fieldName, schema);
+        };
+    }
+
+    private static ValueFactory compileByName(String fieldName) {
+        String lowerName = fieldName.toLowerCase(Locale.ROOT);
+
+        if (lowerName.contains("account") && lowerName.contains("id")) {
+            return random -> digits("40817810", random.nextInt(1_000_000_000), 12);
+        }
+        if (lowerName.contains("card")) {
+            return random -> digits("4276", random.nextInt(1_000_000_000), 12);
+        }
+        if (lowerName.contains("amount")) {
+            return random -> random.nextInt(100_000) + 100;
+        }
+        if (lowerName.contains("currency")) {
+            return random -> "RUB";
+        }
+        String value = "test_" + fieldName;
+        return random -> value;
+    }
+
+    private static ValueFactory compileString(String fieldName, Map<String, Object> schema) {
+        String lowerName = fieldName.toLowerCase(Locale.ROOT);
+        Object format = schema.get("format");
+
+        if (lowerName.contains("account") && lowerName.contains("id")) {
+            return random -> digits("40817810", random.nextInt(1_000_000_000), 12);
+        }
+        if (lowerName.contains("card") && lowerName.contains("number")) {
+            return random -> digits("4276", random.nextInt(1_000_000_000), 12);
+        }
+        if (lowerName.contains("phone")) {
+            return random -> digits("+7", random.nextInt(1_000_000_000), 10);
+        }
+        if (lowerName.contains("email")) {
+            return random -> "test" + random.nextInt(1000) + "@example.com";
+        }
+        if (lowerName.contains("amount") || lowerName.contains("sum")) {
+            return random -> String.valueOf(random.nextInt(100_000) + 100);
+        }
+
+        if ("date".equals(format)) {
+            return random -> digits(digits("2024-", random.nextInt(12) + 1, 2) + "-", random.nextInt(28) + 1, 2);
+        }
+        if ("date-time".equals(format)) {
+            return random -> "2024-01-15T10:30:00Z";
+        }
+        if ("uuid".equals(format)) {
+            return FallbackDataGenerator::uuid;
+        }
+
+        if (schema.get("enum") instanceof List<?> enumValues && !enumValues.isEmpty()) {
+            Object[] values = enumValues.toArray();
+            return random -> values[random.nextInt(values.length)];
+        }
+
+        String prefix = "test_" + fieldName + "_";
+        return random -> prefix + random.nextInt(1000);
+    }
+
+    private static ValueFactory compileInteger(Map<String, Object> schema) {
+        if (schema.get("minimum") instanceof Number min && schema.get("maximum") instanceof Number max) {
+            int low = min.intValue();
+            int bound = max.intValue() + 1;
+            return random -> low < bound ? random.nextInt(low, bound) : low;
+        }
+        return random -> random.nextInt(10_000);
+    }
+
+    private static ValueFactory compileNumber(Map<String, Object> schema) {
+        if (schema.get("minimum") instanceof Number min && schema.get("maximum") instanceof Number max) {
+            double low = min.doubleValue();
+            double range = max.doubleValue() - low;
+            return random -> low + range * random.nextDouble();
+        }
+        return random -> Math.round((random.nextDouble() * 10_000) * 100.0) / 100.0;
+    }
+
+    private static ValueFactory compileArray(Map<String, Object> schema) {
+        Map<String, Object> items = asSchema(schema.get("items"));
+        if (items == null) {
+            return random -> Collections.emptyList();
+        }
+        ValueFactory item = compileValue("item", items);
+        return random -> {
+            int size = random.nextInt(3) + 1;
+            List<Object> array = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                array.add(item.next(random));
+            }
+            return array;
+        };
+    }
+
+    private static ValueFactory compileObject(Map<String, Object> schema) {
+        Map<String, Object> properties = asSchema(schema.get("properties"));
+        if (properties == null) {
+            return random -> Collections.emptyMap();
+        }
+        // Nested fields are all treated as optional
+        Field[] fields = compileFields(properties, name -> false);
+        return random -> {
+            Map<String, Object> object = new LinkedHashMap<>(fields.length * 2);
+            for (Field field : fields) {
+                field.putInto(object, random);
+            }
+            return object;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asSchema(Object value) {
+        return value instanceof Map<?, ?> map ? (Map<String, Object>) map : null;
+    }
+
+    private static Map<String, Object> copyOf(Map<String, Object> contextData, int fields) {
+        int size = fields + (contextData != null ? contextData.size() : 0);
+        Map<String, Object> data = new LinkedHashMap<>(size * 2);
+        if (contextData != null) {
+            data.putAll(contextData);
+        }
+        return data;
+    }
+
+    /**
+     * {@code prefix} followed by {@code value} zero-padded to {@code width} digits.
+     */
+    private static String digits(String prefix, int value, int width) {
+        char[] chars = new char[prefix.length() + width];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        for (int i = chars.length - 1; i >= prefix.length(); i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(chars);
+    }
+
+    @FunctionalInterface
+    private interface ValueFactory {
+        Object next(SplittableRandom random);
+    }
+
+    private record Field(String name, ValueFactory value, boolean required) {
+
+        void putInto(Map<String, Object> target, SplittableRandom random) {
+            if (!required && random.nextInt(10) < OPTIONAL_OMITTED_TENTHS) {
+                return;
+            }
+            target.put(name, value.next(random));
+        }
+    }
+
+    private record FactoryKey(String method, String path, String schemaKey) {
+    }
+}
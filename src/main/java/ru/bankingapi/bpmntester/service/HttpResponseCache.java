@@ -0,0 +1,271 @@
+package ru.bankingapi.bpmntester.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Service;
+import ru.bankingapi.bpmntester.domain.BusinessProcess;
+import ru.bankingapi.bpmntester.domain.ExecutionMode;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Opt-in cache for GET step responses, keyed by (mode, URL, auth principal).
+ * <p>
+ * The principal is a hash of the {@code Authorization} header, so a new OAuth token
+ * starts an empty cache. With {@code response-cache.key-scope: shared} the header is
+ * left out of the key and entries are shared by every execution; use it only when all
+ * executions authenticate as the same client.
+ * <p>
+ * Honours {@code Cache-Control} (no-store, no-cache, max-age) and revalidates
+ * stale entries with {@code If-None-Match}/{@code If-Modified-Since}. Entries are
+ * evicted in LRU order once the total cached body size exceeds the byte budget.
+ */
+@Service
+@Slf4j
+public class HttpResponseCache {
+
+    @Value("${response-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${response-cache.max-bytes:16777216}")
+    private long maxBytes;
+
+    @Value("${response-cache.default-ttl-seconds:0}")
+    private long defaultTtlSeconds;
+
+    @Value("${response-cache.key-scope:token}")
+    private String keyScope;
+
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public boolean isEnabledFor(BusinessProcess process) {
+        if (process.getResponseCacheEnabled() != null) {
+            return process.getResponseCacheEnabled();
+        }
+        return enabled;
+    }
+
+    public ResponseEntity<String> exchange(
+        ExecutionMode mode,
+        String url,
+        HttpEntity<String> request,
+        Function<HttpEntity<String>, ResponseEntity<String>> fetch
+    ) {
+        String key = cacheKey(mode, url, request.getHeaders());
+        CachedResponse cached = get(key);
+        long now = System.currentTimeMillis();
+
+        if (cached != null && !cached.mustRevalidate && cached.expiresAt > now) {
+            hits.incrementAndGet();
+            log.debug("Response cache hit: {}", url);
+            return cached.toResponse();
+        }
+
+        HttpEntity<String> outgoing = request;
+        if (cached != null && cached.hasValidators()) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(request.getHeaders());
+            if (cached.etag != null) {
+                headers.setIfNoneMatch(cached.etag);
+            }
+            if (cached.lastModified > 0) {
+                headers.setIfModifiedSince(cached.lastModified);
+            }
+            outgoing = new HttpEntity<>(request.getBody(), headers);
+        }
+
+        ResponseEntity<String> response = fetch.apply(outgoing);
+
+        if (cached != null && response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            revalidations.incrementAndGet();
+            log.debug("Response cache revalidated: {}", url);
+            put(key, cached.refresh(response.getHeaders(), ttlMillis(response.getHeaders()), now));
+            return cached.toResponse();
+        }
+
+        misses.incrementAndGet();
+        store(key, response, now);
+        return response;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", currentBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("revalidations", revalidations.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            currentBytes = 0;
+        }
+        log.info("Response cache cleared");
+    }
+
+    private void store(String key, ResponseEntity<String> response, long now) {
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return;
+        }
+
+        CacheControl control = CacheControl.parse(response.getHeaders().getCacheControl());
+        if (control.noStore) {
+            return;
+        }
+
+        long ttl = ttlMillis(response.getHeaders());
+        String etag = response.getHeaders().getETag();
+        long lastModified = response.getHeaders().getLastModified();
+        boolean hasValidators = etag != null || lastModified > 0;
+
+        if (ttl <= 0 && !hasValidators) {
+            return;
+        }
+
+        put(key, new CachedResponse(
+            response.getStatusCode(),
+            copyHeaders(response.getHeaders()),
+            response.getBody(),
+            etag,
+            lastModified,
+            now + Math.max(ttl, 0),
+            control.noCache || ttl <= 0
+        ));
+    }
+
+    private long ttlMillis(HttpHeaders headers) {
+        CacheControl control = CacheControl.parse(headers.getCacheControl());
+        if (control.maxAgeSeconds >= 0) {
+            return control.maxAgeSeconds * 1000;
+        }
+        return defaultTtlSeconds * 1000;
+    }
+
+    private CachedResponse get(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void put(String key, CachedResponse response) {
+        if (response.size() > maxBytes) {
+            return;
+        }
+
+        synchronized (entries) {
+            CachedResponse previous = entries.put(key, response);
+            if (previous != null) {
+                currentBytes -= previous.size();
+            }
+            currentBytes += response.size();
+
+            Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && eldest.hasNext()) {
+                currentBytes -= eldest.next().getValue().size();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private String cacheKey(ExecutionMode mode, String url, HttpHeaders headers) {
+        if ("shared".equalsIgnoreCase(keyScope)) {
+            return mode + " " + url;
+        }
+        String authorization = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        return mode + " " + url + " " + principalHash(authorization);
+    }
+
+    private String principalHash(String authorization) {
+        if (authorization == null) {
+            return "anonymous";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(authorization.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (Exception e) {
+            return Integer.toHexString(authorization.hashCode());
+        }
+    }
+
+    private HttpHeaders copyHeaders(HttpHeaders source) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(source);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    private record CacheControl(boolean noStore, boolean noCache, long maxAgeSeconds) {
+
+        static CacheControl parse(String header) {
+            boolean noStore = false;
+            boolean noCache = false;
+            long maxAge = -1;
+
+            if (header != null) {
+                for (String directive : header.toLowerCase().split(",")) {
+                    directive = directive.trim();
+                    if (directive.equals("no-store")) {
+                        noStore = true;
+                    } else if (directive.equals("no-cache")) {
+                        noCache = true;
+                    } else if (directive.startsWith("max-age=")) {
+                        try {
+                            maxAge = Long.parseLong(directive.substring("max-age=".length()));
+                        } catch (NumberFormatException ignored) {
+                            // keep default freshness
+                        }
+                    }
+                }
+            }
+
+            return new CacheControl(noStore, noCache, maxAge);
+        }
+    }
+
+    private record CachedResponse(
+        HttpStatusCode status,
+        HttpHeaders headers,
+        String body,
+        String etag,
+        long lastModified,
+        long expiresAt,
+        boolean mustRevalidate
+    ) {
+        boolean hasValidators() {
+            return etag != null || lastModified > 0;
+        }
+
+        long size() {
+            return (body != null ? body.length() * 2L : 0) + 256;
+        }
+
+        CachedResponse refresh(HttpHeaders notModifiedHeaders, long ttl, long now) {
+            boolean noCache = CacheControl.parse(notModifiedHeaders.getCacheControl()).noCache;
+            return new CachedResponse(status, headers, body, etag, lastModified,
+                now + Math.max(ttl, 0), noCache || ttl <= 0);
+        }
+
+        ResponseEntity<String> toResponse() {
+            return new ResponseEntity<>(body, headers, status);
+        }
+    }
+}
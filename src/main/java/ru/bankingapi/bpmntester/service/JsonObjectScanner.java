@@ -0,0 +1,202 @@
+package ru.bankingapi.bpmntester.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Finds the first complete top-level JSON object in text that arrives piece by piece,
+ * such as model output with prose or code fences around the JSON.
+ * <p>
+ * Text before the first {@code '{'} is skipped; from there the bytes go through
+ * Jackson's non-blocking parser, which tracks nesting at any depth without
+ * backtracking, so a well-formed object is found in one pass over the input. If the
+ * parser rejects a candidate (e.g. a brace inside prose), the earliest complete object
+ * nested in it is the result; without one, scanning resumes after the last token the
+ * parser accepted, since any bracket it opened before that fails at the same place.
+ * Every byte is therefore scanned once, and consumed bytes are dropped only when that
+ * frees at least half the buffer. Brackets inside strings of a rejected candidate are
+ * not tried as candidates. A scanner is single-use and not thread-safe.
+ */
+public class JsonObjectScanner {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final boolean arrays;
+
+    /** Unscanned text or the current candidate lies between {@code start} and {@code length}. */
+    private byte[] buffer = new byte[256];
+    private int start;
+    private int length;
+    private int fed;
+
+    private JsonParser parser;
+    /** Offsets from {@code start} of the open brackets that may be a result, -1 for the others. */
+    private int[] opened = new int[16];
+    private int depth;
+    /** The earliest complete nested value of the candidate, -1 while there is none. */
+    private int nestedStart;
+    private int nestedEnd;
+    /** Offset from {@code start} just after the last token the parser accepted. */
+    private int accepted;
+    private String result;
+
+    public JsonObjectScanner() {
+        this(false);
+    }
+
+    private JsonObjectScanner(boolean arrays) {
+        this.arrays = arrays;
+    }
+
+    /**
+     * A scanner that also accepts a top-level array as the value to find.
+     */
+    public static JsonObjectScanner objectOrArray() {
+        return new JsonObjectScanner(true);
+    }
+
+    /**
+     * The first complete JSON object in {@code text}, or {@code null}.
+     */
+    public static String firstObject(String text) {
+        JsonObjectScanner scanner = new JsonObjectScanner();
+        return text != null && scanner.feed(text) ? scanner.result() : null;
+    }
+
+    /**
+     * Feed the next piece of text; returns {@code true} once a complete value was found.
+     */
+    public boolean feed(String piece) {
+        byte[] bytes = piece.getBytes(StandardCharsets.UTF_8);
+        return feed(bytes, 0, bytes.length);
+    }
+
+    public boolean feed(byte[] bytes, int offset, int count) {
+        if (result != null) {
+            return true;
+        }
+        if (length + count > buffer.length) {
+            makeRoom(count);
+        }
+        System.arraycopy(bytes, offset, buffer, length, count);
+        length += count;
+        return scan();
+    }
+
+    public boolean isComplete() {
+        return result != null;
+    }
+
+    /**
+     * Text of the value found, from its opening to its closing bracket; {@code null} until complete.
+     */
+    public String result() {
+        return result;
+    }
+
+    private boolean scan() {
+        while (true) {
+            if (parser == null && !startCandidate()) {
+                return false;
+            }
+            try {
+                if (fed < length) {
+                    ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(buffer, fed, length);
+                    fed = length;
+                }
+                JsonToken token;
+                while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                    accepted = (int) parser.currentLocation().getByteOffset();
+                    if (token.isStructStart()) {
+                        // A bracket is one byte, and the parser stops right after it
+                        open(token == JsonToken.START_OBJECT || arrays ? accepted - 1 : -1);
+                    } else if (token.isStructEnd()) {
+                        int opener = opened[--depth];
+                        if (depth == 0) {
+                            result = text(0, accepted);
+                            closeParser();
+                            return true;
+                        }
+                        if (opener >= 0 && (nestedStart < 0 || opener < nestedStart)) {
+                            nestedStart = opener;
+                            nestedEnd = accepted;
+                        }
+                    }
+                }
+                return false;
+            } catch (IOException e) {
+                // Not JSON after all: take what completed inside it, or go on after its last good token
+                closeParser();
+                if (nestedStart >= 0) {
+                    result = text(nestedStart, nestedEnd);
+                    return true;
+                }
+                start += Math.max(1, accepted);
+            }
+        }
+    }
+
+    /**
+     * Skip text up to the next opening bracket and start a parser there.
+     */
+    private boolean startCandidate() {
+        while (start < length && buffer[start] != '{' && !(arrays && buffer[start] == '[')) {
+            start++;
+        }
+        if (start == length) {
+            return false;
+        }
+        try {
+            parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create JSON parser", e);
+        }
+        fed = start;
+        depth = 0;
+        nestedStart = -1;
+        accepted = 0;
+        return true;
+    }
+
+    private void open(int offset) {
+        if (depth == opened.length) {
+            opened = Arrays.copyOf(opened, depth * 2);
+        }
+        opened[depth++] = offset;
+    }
+
+    /**
+     * Drop the consumed bytes before {@code start}, in place when that frees at least half
+     * the buffer and into a buffer twice as large otherwise.
+     */
+    private void makeRoom(int count) {
+        int live = length - start;
+        byte[] target = live + count <= buffer.length / 2
+            ? buffer
+            : new byte[Math.max(buffer.length * 2, live + count)];
+        System.arraycopy(buffer, start, target, 0, live);
+        buffer = target;
+        fed -= start;
+        length = live;
+        start = 0;
+    }
+
+    private String text(int from, int to) {
+        return new String(buffer, start + from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private void closeParser() {
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            // nothing to release for an in-memory parser
+        }
+        parser = null;
+    }
+}
@@ -0,0 +1,63 @@
+package ru.bankingapi.bpmntester.service;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-bucket latency histogram used for percentile estimates.
+ * <p>
+ * Bucket {@code i} counts latencies up to {@code BOUNDS_MS[i]} (and above the
+ * previous bound); the last bucket counts everything slower than the highest
+ * bound. Percentiles are reported as the upper bound of the bucket they fall
+ * in, capped at the observed maximum, so they are estimates with a resolution
+ * of one bucket. Not thread-safe.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Upper bounds in milliseconds. Bucket indexes are stored in {@code step_metric_rollups},
+     * so existing bounds must not change.
+     */
+    public static final long[] BOUNDS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final long[] counts = new long[BOUNDS_MS.length + 1];
+    private long total;
+    private long max;
+
+    public static int bucketOf(long latencyMs) {
+        int index = Arrays.binarySearch(BOUNDS_MS, latencyMs);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    public void add(int bucket, long count, long maxMs) {
+        counts[bucket] += count;
+        total += count;
+        max = Math.max(max, maxMs);
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Estimated latency at quantile {@code q} (0..1), or {@code null} without samples.
+     */
+    public Long percentile(double q) {
+        if (total == 0) {
+            return null;
+        }
+
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(BOUNDS_MS[i], max);
+            }
+        }
+        return max;
+    }
+}
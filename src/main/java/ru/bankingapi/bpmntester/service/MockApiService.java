@@ -0,0 +1,272 @@
+package ru.bankingapi.bpmntester.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.bankingapi.bpmntester.domain.ApiEndpointInfo;
+import ru.bankingapi.bpmntester.domain.BusinessProcess;
+import ru.bankingapi.bpmntester.domain.ProcessStep;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * In-process mock of the banking API built from uploaded OpenAPI specs.
+ * Every registered operation answers with a body generated from its response
+ * schema; latency and error rate are configurable to shape load tests.
+ * <p>
+ * The registry lives in memory. Uploads fill it with every operation of their specs
+ * and store those operations with the process ({@link #describeEndpoints}); before
+ * the first MOCK execution of a process after a restart they are registered again
+ * from there, together with the specs stored on its steps.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MockApiService {
+
+    private final ObjectMapper objectMapper;
+    private final OpenApiParserService openApiParser;
+
+    @Value("${mock-server.latency-ms:0}")
+    private long latencyMs;
+
+    @Value("${mock-server.latency-jitter-ms:0}")
+    private long latencyJitterMs;
+
+    @Value("${mock-server.error-rate:0.0}")
+    private double errorRate;
+
+    @Value("${mock-server.error-status:500}")
+    private int errorStatus;
+
+    private final Map<String, MockOperation> exactOperations = new ConcurrentHashMap<>();
+    private final Map<String, List<MockOperation>> templatedOperations = new ConcurrentHashMap<>();
+    private final Set<Long> registeredProcesses = ConcurrentHashMap.newKeySet();
+
+    /**
+     * JSON form of the operations to store with a process: method, path and response
+     * schema, which is all the mock needs.
+     */
+    public String describeEndpoints(Collection<ApiEndpointInfo> endpoints) {
+        List<ApiEndpointInfo> operations = endpoints.stream()
+            .filter(endpoint -> endpoint.getPath() != null && endpoint.getMethod() != null)
+            .map(endpoint -> ApiEndpointInfo.builder()
+                .method(endpoint.getMethod())
+                .path(endpoint.getPath())
+                .responseSchema(endpoint.getResponseSchema())
+                .build())
+            .toList();
+        if (operations.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(operations);
+        } catch (Exception e) {
+            log.warn("Failed to store mock operations: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Register the stored operations of the process and of its steps, once per process.
+     */
+    public void registerProcess(BusinessProcess process) {
+        if (process.getId() == null || registeredProcesses.contains(process.getId())) {
+            return;
+        }
+        List<ApiEndpointInfo> endpoints = new ArrayList<>();
+        if (process.getMockEndpoints() != null) {
+            try {
+                endpoints.addAll(objectMapper.readValue(
+                    process.getMockEndpoints(), new TypeReference<List<ApiEndpointInfo>>() {}
+                ));
+            } catch (Exception e) {
+                log.warn("Failed to read mock operations of process {}: {}", process.getId(), e.getMessage());
+            }
+        }
+        for (ProcessStep step : process.getSteps()) {
+            if (step.getOpenApiSpec() != null && !step.getOpenApiSpec().isBlank()) {
+                endpoints.add(openApiParser.endpointInfoFor(step));
+            }
+        }
+        if (!endpoints.isEmpty()) {
+            registerEndpoints(endpoints);
+        }
+        registeredProcesses.add(process.getId());
+    }
+
+    public void registerEndpoints(Collection<ApiEndpointInfo> endpoints) {
+        for (ApiEndpointInfo endpoint : endpoints) {
+            if (endpoint.getPath() == null || endpoint.getMethod() == null) {
+                continue;
+            }
+
+            String method = endpoint.getMethod().toUpperCase();
+            MockOperation operation = new MockOperation(
+                method,
+                endpoint.getPath(),
+                compileTemplate(endpoint.getPath()),
+                renderBody(endpoint.getResponseSchema())
+            );
+
+            if (endpoint.getPath().contains("{")) {
+                List<MockOperation> operations = templatedOperations
+                    .computeIfAbsent(method, m -> new CopyOnWriteArrayList<>());
+                operations.removeIf(existing -> existing.path().equals(operation.path()));
+                operations.add(operation);
+            } else {
+                exactOperations.put(method + " " + endpoint.getPath(), operation);
+            }
+        }
+
+        log.info("Mock server now serves {} operations", getOperationCount());
+    }
+
+    public MockResponse handle(String method, String path) {
+        simulateLatency();
+
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            return new MockResponse(errorStatus, "{\"error\":\"Simulated mock failure\"}");
+        }
+
+        MockOperation operation = findOperation(method.toUpperCase(), path);
+        if (operation == null) {
+            log.debug("No mock operation for {} {}", method, path);
+            return new MockResponse(404, "{\"error\":\"No mock operation for " + method + " " + path + "\"}");
+        }
+
+        return new MockResponse(200, operation.body());
+    }
+
+    public int getOperationCount() {
+        return exactOperations.size() + templatedOperations.values().stream().mapToInt(List::size).sum();
+    }
+
+    private MockOperation findOperation(String method, String path) {
+        MockOperation exact = exactOperations.get(method + " " + path);
+        if (exact != null) {
+            return exact;
+        }
+
+        List<MockOperation> candidates = templatedOperations.get(method);
+        if (candidates == null) {
+            return null;
+        }
+
+        for (MockOperation candidate : candidates) {
+            if (candidate.pattern().matcher(path).matches()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void simulateLatency() {
+        long delay = latencyMs;
+        if (latencyJitterMs > 0) {
+            delay += ThreadLocalRandom.current().nextLong(latencyJitterMs + 1);
+        }
+        if (delay <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Pattern compileTemplate(String path) {
+        StringBuilder regex = new StringBuilder("^");
+        for (String part : path.split("(?=\\{)|(?<=\\})")) {
+            if (part.startsWith("{") && part.endsWith("}")) {
+                regex.append("[^/]+");
+            } else {
+                regex.append(Pattern.quote(part));
+            }
+        }
+        return Pattern.compile(regex.append("$").toString());
+    }
+
+    private String renderBody(Map<String, Object> schema) {
+        try {
+            Object body = schema == null || schema.isEmpty() ? Map.of() : sampleValue("body", schema, 0);
+            return objectMapper.writeValueAsString(body);
+        } catch (Exception e) {
+            log.warn("Failed to render mock body: {}", e.getMessage());
+            return "{}";
+        }
+    }
+
+    private Object sampleValue(String name, Map<String, Object> schema, int depth) {
+        if (schema.get("example") != null) {
+            return schema.get("example");
+        }
+        if (schema.get("enum") instanceof List<?> values && !values.isEmpty()) {
+            return values.get(0);
+        }
+
+        String type = (String) schema.get("type");
+        if (type == null) {
+            type = schema.containsKey("properties") ? "object" : "string";
+        }
+
+        return switch (type) {
+            case "object" -> sampleObject(schema, depth);
+            case "array" -> sampleArray(name, schema, depth);
+            case "integer" -> schema.get("minimum") instanceof Number min ? min.longValue() : 1;
+            case "number" -> schema.get("minimum") instanceof Number min ? min.doubleValue() : 100.0;
+            case "boolean" -> true;
+            default -> sampleString(name, (String) schema.get("format"));
+        };
+    }
+
+    private Map<String, Object> sampleObject(Map<String, Object> schema, int depth) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (depth > 8 || !(schema.get("properties") instanceof Map<?, ?> properties)) {
+            return result;
+        }
+
+        properties.forEach((fieldName, fieldSchema) -> {
+            if (fieldSchema instanceof Map<?, ?> fieldSchemaMap) {
+                result.put((String) fieldName,
+                    sampleValue((String) fieldName, (Map<String, Object>) fieldSchemaMap, depth + 1));
+            }
+        });
+        return result;
+    }
+
+    private List<Object> sampleArray(String name, Map<String, Object> schema, int depth) {
+        if (depth > 8 || !(schema.get("items") instanceof Map<?, ?> items)) {
+            return List.of();
+        }
+        return List.of(sampleValue(name, (Map<String, Object>) items, depth + 1));
+    }
+
+    private String sampleString(String name, String format) {
+        if ("date".equals(format)) {
+            return "2024-01-15";
+        }
+        if ("date-time".equals(format)) {
+            return "2024-01-15T10:30:00Z";
+        }
+        if ("uuid".equals(format) || name.toLowerCase().endsWith("id")) {
+            return UUID.nameUUIDFromBytes(name.getBytes()).toString();
+        }
+        return "mock_" + name;
+    }
+
+    private record MockOperation(String method, String path, Pattern pattern, String body) {
+    }
+
+    public record MockResponse(int status, String body) {
+    }
+}
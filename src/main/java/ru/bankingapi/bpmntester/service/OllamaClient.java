@@ -0,0 +1,218 @@
+package ru.bankingapi.bpmntester.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client for the Ollama {@code /api/generate} endpoint.
+ * <p>
+ * Connections are pooled and kept alive between calls. Tokens are read from the
+ * streaming (NDJSON) reply as they arrive; as soon as they form a complete JSON value
+ * the connection is aborted, which makes Ollama stop generating. A call is bounded by
+ * {@code ai.ollama.connect-timeout-ms}, by {@code ai.ollama.idle-timeout-ms} between
+ * tokens and by a hard {@code ai.ollama.deadline-seconds} for the whole reply.
+ */
+@Service
+@Slf4j
+public class OllamaClient {
+
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final String model;
+    private final long deadlineSeconds;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final ScheduledExecutorService deadlines;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong earlyStops = new AtomicLong();
+    private final AtomicLong deadlinesExceeded = new AtomicLong();
+
+    public OllamaClient(
+        ObjectMapper objectMapper,
+        @Value("${ai.ollama.base-url:http://localhost:11434}") String baseUrl,
+        @Value("${ai.ollama.model:llama3.2:3b}") String model,
+        @Value("${ai.ollama.connect-timeout-ms:2000}") long connectTimeoutMs,
+        @Value("${ai.ollama.idle-timeout-ms:30000}") long idleTimeoutMs,
+        @Value("${ai.ollama.deadline-seconds:120}") long deadlineSeconds,
+        @Value("${ai.ollama.max-connections:8}") int maxConnections
+    ) {
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.model = model;
+        this.deadlineSeconds = deadlineSeconds;
+
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(idleTimeoutMs))
+                .setTimeToLive(TimeValue.ofMinutes(5))
+                .build())
+            .build();
+        this.httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofSeconds(deadlineSeconds))
+                .setResponseTimeout(Timeout.ofMilliseconds(idleTimeoutMs))
+                .build())
+            .evictIdleConnections(TimeValue.ofSeconds(30))
+            .build();
+        this.deadlines = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ollama-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void close() {
+        deadlines.shutdownNow();
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+
+    /**
+     * Generate a JSON reply for the prompt; returns the first complete JSON value in the
+     * reply (the whole reply if none completed), or {@code null} on an error status.
+     */
+    public String generate(String prompt) throws IOException {
+        calls.incrementAndGet();
+
+        Map<String, Object> requestBody = new LinkedHashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("prompt", prompt);
+        requestBody.put("stream", true);
+        requestBody.put("format", "json");
+
+        HttpPost post = new HttpPost(baseUrl + "/api/generate");
+        post.setEntity(new StringEntity(objectMapper.writeValueAsString(requestBody), ContentType.APPLICATION_JSON));
+
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> deadline = deadlines.schedule(() -> {
+            timedOut.set(true);
+            post.cancel();
+        }, deadlineSeconds, TimeUnit.SECONDS);
+
+        ClassicHttpResponse response = null;
+        try {
+            response = httpClient.executeOpen(null, post, null);
+            if (response.getCode() / 100 != 2) {
+                log.warn("Ollama returned HTTP {}", response.getCode());
+                EntityUtils.consume(response.getEntity());
+                return null;
+            }
+            return readUntilComplete(response, post);
+
+        } catch (IOException e) {
+            if (timedOut.get()) {
+                deadlinesExceeded.incrementAndGet();
+                throw new IOException("Ollama did not finish within " + deadlineSeconds + "s", e);
+            }
+            throw e;
+        } finally {
+            deadline.cancel(false);
+            closeQuietly(response);
+        }
+    }
+
+    public boolean isAvailable() {
+        HttpGet get = new HttpGet(baseUrl + "/api/tags");
+        try {
+            return httpClient.execute(get, response -> {
+                EntityUtils.consume(response.getEntity());
+                return response.getCode() / 100 == 2;
+            });
+        } catch (IOException e) {
+            log.warn("Ollama not available: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("calls", calls.get());
+        stats.put("earlyStops", earlyStops.get());
+        stats.put("deadlinesExceeded", deadlinesExceeded.get());
+        stats.put("leasedConnections", connectionManager.getTotalStats().getLeased());
+        stats.put("idleConnections", connectionManager.getTotalStats().getAvailable());
+        return stats;
+    }
+
+    private String readUntilComplete(ClassicHttpResponse response, HttpPost post) throws IOException {
+        StringBuilder text = new StringBuilder();
+        JsonObjectScanner scanner = JsonObjectScanner.objectOrArray();
+
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode chunk = objectMapper.readTree(line);
+            if (chunk.hasNonNull("error")) {
+                throw new IOException("Ollama error: " + chunk.get("error").asText());
+            }
+
+            String token = chunk.path("response").asText("");
+            text.append(token);
+            boolean done = chunk.path("done").asBoolean(false);
+            if (scanner.feed(token)) {
+                if (!done) {
+                    earlyStops.incrementAndGet();
+                    post.cancel();
+                }
+                return scanner.result();
+            }
+            if (done) {
+                break;
+            }
+        }
+        return text.toString();
+    }
+
+    private static void closeQuietly(ClassicHttpResponse response) {
+        if (response == null) {
+            return;
+        }
+        try {
+            response.close();
+        } catch (IOException e) {
+            // the connection was aborted on purpose; nothing left to release
+        }
+    }
+}
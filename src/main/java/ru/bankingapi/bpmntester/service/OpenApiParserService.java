@@ -15,6 +15,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.bankingapi.bpmntester.domain.ApiEndpointInfo;
+import ru.bankingapi.bpmntester.domain.ProcessStep;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -68,41 +69,55 @@ public class OpenApiParserService {
             return createDefaultEndpointInfo(path, method);
         }
 
+        SchemaConverter converter = new SchemaConverter(objectMapper);
         return ApiEndpointInfo.builder()
             .path(path)
             .method(method.toUpperCase())
             .operationId(operation.getOperationId())
             .summary(operation.getSummary())
             .description(operation.getDescription())
-            .requestSchema(extractRequestSchema(operation))
-            .responseSchema(extractResponseSchema(operation))
+            .requestSchema(extractRequestSchema(operation, converter))
+            .responseSchema(extractResponseSchema(operation, converter))
             .requiredFields(extractRequiredFields(operation))
             .build();
     }
 
-    public ApiEndpointInfo findBestMatchingEndpoint(
-        OpenAPI openAPI, 
-        String taskName, 
-        String taskDescription
-    ) {
-        if (openAPI == null || openAPI.getPaths() == null) {
-            log.warn("OpenAPI or paths is null");
-            return null;
+    /**
+     * Endpoint info matched to a step at upload time, or a bare one built from the step itself.
+     */
+    public ApiEndpointInfo endpointInfoFor(ProcessStep step) {
+        try {
+            if (step.getOpenApiSpec() != null && !step.getOpenApiSpec().isBlank()) {
+                return objectMapper.readValue(step.getOpenApiSpec(), ApiEndpointInfo.class);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to parse endpoint info from step", e);
         }
 
-        List<ApiEndpointInfo> allEndpoints = extractAllEndpoints(openAPI);
-        
-        if (allEndpoints.isEmpty()) {
-            return null;
-        }
+        return ApiEndpointInfo.builder()
+            .path(step.getApiEndpoint() != null ? step.getApiEndpoint() : "/unknown")
+            .method(step.getHttpMethod() != null ? step.getHttpMethod() : "GET")
+            .operationId(step.getStepId() != null ? step.getStepId() : "unknown")
+            .summary(step.getStepName() != null ? step.getStepName() : "")
+            .description("")
+            .requestSchema(new HashMap<>())
+            .responseSchema(new HashMap<>())
+            .requiredFields(new ArrayList<>())
+            .build();
+    }
+
+    /**
+     * Index endpoints once so that matching many steps against the same spec
+     * does not rescan every operation.
+     */
+    public EndpointIndex buildEndpointIndex(List<ApiEndpointInfo> endpoints) {
+        EndpointIndex index = new EndpointIndex(endpoints);
+        log.debug("Built endpoint index over {} endpoints", index.size());
+        return index;
+    }
 
-        String searchText = (taskName + " " + taskDescription).toLowerCase();
-        
-        return allEndpoints.stream()
-            .max(Comparator.comparingInt(endpoint -> 
-                calculateSimilarityScore(searchText, endpoint)
-            ))
-            .orElse(null);
+    public List<ApiEndpointInfo> extractAllEndpoints(String specContent) {
+        return extractAllEndpoints(parseOpenApiSpec(specContent));
     }
 
     public List<ApiEndpointInfo> extractAllEndpoints(OpenAPI openAPI) {
@@ -112,6 +127,7 @@ public class OpenApiParserService {
         }
 
         List<ApiEndpointInfo> endpoints = new ArrayList<>();
+        SchemaConverter converter = new SchemaConverter(objectMapper);
 
         openAPI.getPaths().forEach((path, pathItem) -> {
             if (pathItem == null || pathItem.readOperationsMap() == null) {
@@ -126,8 +142,8 @@ public class OpenApiParserService {
                         .operationId(operation.getOperationId())
                         .summary(operation.getSummary())
                         .description(operation.getDescription())
-                        .requestSchema(extractRequestSchema(operation))
-                        .responseSchema(extractResponseSchema(operation))
+                        .requestSchema(extractRequestSchema(operation, converter))
+                        .responseSchema(extractResponseSchema(operation, converter))
                         .requiredFields(extractRequiredFields(operation))
                         .build();
                     
@@ -138,7 +154,7 @@ public class OpenApiParserService {
             });
         });
 
-        log.info("Extracted {} endpoints from OpenAPI spec", endpoints.size());
+        log.info("Extracted {} endpoints from OpenAPI spec ({} distinct schemas)", endpoints.size(), converter.size());
         return endpoints;
     }
 
@@ -157,7 +173,7 @@ public class OpenApiParserService {
         };
     }
 
-    private Map<String, Object> extractRequestSchema(Operation operation) {
+    private Map<String, Object> extractRequestSchema(Operation operation, SchemaConverter converter) {
         if (operation == null || operation.getRequestBody() == null) {
             return new HashMap<>();
         }
@@ -172,10 +188,10 @@ public class OpenApiParserService {
             return new HashMap<>();
         }
 
-        return schemaToMap(mediaType.getSchema());
+        return converter.convert(mediaType.getSchema());
     }
 
-    private Map<String, Object> extractResponseSchema(Operation operation) {
+    private Map<String, Object> extractResponseSchema(Operation operation, SchemaConverter converter) {
         if (operation == null || operation.getResponses() == null) {
             return new HashMap<>();
         }
@@ -194,7 +210,7 @@ public class OpenApiParserService {
             return new HashMap<>();
         }
 
-        return schemaToMap(mediaType.getSchema());
+        return converter.convert(mediaType.getSchema());
     }
 
     private List<String> extractRequiredFields(Operation operation) {
@@ -231,45 +247,6 @@ public class OpenApiParserService {
         return required;
     }
 
-    private Map<String, Object> schemaToMap(Schema<?> schema) {
-        if (schema == null) {
-            return new HashMap<>();
-        }
-
-        try {
-            String json = objectMapper.writeValueAsString(schema);
-            return objectMapper.readValue(json, Map.class);
-        } catch (Exception e) {
-            log.warn("Failed to convert schema to map", e);
-            return new HashMap<>();
-        }
-    }
-
-    private int calculateSimilarityScore(String searchText, ApiEndpointInfo endpoint) {
-        int score = 0;
-        
-        String endpointText = String.format("%s %s %s %s",
-            endpoint.getPath() != null ? endpoint.getPath() : "",
-            endpoint.getOperationId() != null ? endpoint.getOperationId() : "",
-            endpoint.getSummary() != null ? endpoint.getSummary() : "",
-            endpoint.getDescription() != null ? endpoint.getDescription() : ""
-        ).toLowerCase();
-
-        String[] searchWords = searchText.split("\\s+");
-        for (String word : searchWords) {
-            if (word.length() > 3 && endpointText.contains(word)) {
-                score += 10;
-            }
-        }
-
-        if (endpoint.getOperationId() != null && 
-            searchText.contains(endpoint.getOperationId().toLowerCase())) {
-            score += 50;
-        }
-
-        return score;
-    }
-
     private ApiEndpointInfo createDefaultEndpointInfo(String path, String method) {
         return ApiEndpointInfo.builder()
             .path(path != null ? path : "/unknown")
@@ -0,0 +1,226 @@
+package ru.bankingapi.bpmntester.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.bankingapi.bpmntester.domain.ApiEndpointInfo;
+import ru.bankingapi.bpmntester.domain.BusinessProcess;
+import ru.bankingapi.bpmntester.domain.ProcessStep;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Content-addressed cache of parse results for uploaded BPMN and OpenAPI files.
+ * <p>
+ * Entries are keyed by the SHA-256 of the uploaded bytes, so re-uploading an
+ * identical file skips XML/YAML parsing entirely. The in-memory cache is LRU with
+ * a fixed entry limit; when {@code parse-cache.dir} is set, entries are also
+ * written to disk and survive restarts. A BPMN entry remembers whether its content
+ * passed schema validation, so a validated upload is validated once, not on every
+ * repeat.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ParseCacheService {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${parse-cache.max-entries:256}")
+    private int maxEntries;
+
+    @Value("${parse-cache.dir:}")
+    private String cacheDir;
+
+    private final Map<String, Object> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Return a fresh, unsaved process for the BPMN content, parsing it only on a cache miss.
+     * With {@code validate}, {@code validator} runs on a miss or on a hit whose content
+     * was never validated; it throws for invalid content, which is then not cached.
+     */
+    public BusinessProcess getOrParseBpmn(
+        byte[] content,
+        String processName,
+        boolean validate,
+        Consumer<String> validator,
+        Function<String, BusinessProcess> parser
+    ) {
+        String key = "bpmn-" + sha256(content);
+        String bpmnXml = new String(content, StandardCharsets.UTF_8);
+
+        CachedBpmn cached = lookup(key, new TypeReference<CachedBpmn>() {});
+        if (cached == null) {
+            if (validate) {
+                validator.accept(bpmnXml);
+            }
+            BusinessProcess parsed = parser.apply(bpmnXml);
+            cached = new CachedBpmn(
+                parsed.getName(),
+                parsed.getDescription(),
+                parsed.getSteps().stream().map(this::copyStep).toList(),
+                validate
+            );
+            store(key, cached);
+        } else if (validate && !cached.validated()) {
+            validator.accept(bpmnXml);
+            cached = new CachedBpmn(cached.name(), cached.description(), cached.steps(), true);
+            store(key, cached);
+        }
+
+        BusinessProcess process = BusinessProcess.builder()
+            .name(processName != null ? processName : cached.name())
+            .description(cached.description())
+            .bpmnXml(bpmnXml)
+            .steps(new ArrayList<>())
+            .build();
+
+        for (ProcessStep template : cached.steps()) {
+            ProcessStep step = copyStep(template);
+            step.setBusinessProcess(process);
+            process.getSteps().add(step);
+        }
+
+        return process;
+    }
+
+    /**
+     * Return the endpoints of an OpenAPI document, extracting them only on a cache miss.
+     */
+    public List<ApiEndpointInfo> getOrExtractEndpoints(
+        byte[] content,
+        Function<String, List<ApiEndpointInfo>> extractor
+    ) {
+        String key = "openapi-" + sha256(content);
+
+        List<ApiEndpointInfo> cached = lookup(key, new TypeReference<List<ApiEndpointInfo>>() {});
+        if (cached == null) {
+            cached = List.copyOf(extractor.apply(new String(content, StandardCharsets.UTF_8)));
+            store(key, cached);
+        }
+
+        return cached;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("entries", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("persistent", isPersistent());
+        return stats;
+    }
+
+    private <T> T lookup(String key, TypeReference<T> type) {
+        Object value;
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+        if (value != null) {
+            hits.incrementAndGet();
+            log.debug("Parse cache hit: {}", key);
+            return (T) value;
+        }
+
+        T persisted = readFromDisk(key, type);
+        if (persisted != null) {
+            hits.incrementAndGet();
+            synchronized (entries) {
+                entries.put(key, persisted);
+            }
+            log.debug("Parse cache hit (disk): {}", key);
+            return persisted;
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private void store(String key, Object value) {
+        synchronized (entries) {
+            entries.put(key, value);
+        }
+        writeToDisk(key, value);
+    }
+
+    private boolean isPersistent() {
+        return cacheDir != null && !cacheDir.isBlank();
+    }
+
+    private <T> T readFromDisk(String key, TypeReference<T> type) {
+        if (!isPersistent()) {
+            return null;
+        }
+        Path file = Paths.get(cacheDir, key + ".json");
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), type);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable parse cache file {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, Object value) {
+        if (!isPersistent()) {
+            return;
+        }
+        Path file = Paths.get(cacheDir, key + ".json");
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(key + ".json.tmp");
+            objectMapper.writeValue(tmp.toFile(), value);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to persist parse cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    private ProcessStep copyStep(ProcessStep step) {
+        return ProcessStep.builder()
+            .stepId(step.getStepId())
+            .stepName(step.getStepName())
+            .stepOrder(step.getStepOrder())
+            .stepType(step.getStepType())
+            .apiEndpoint(step.getApiEndpoint())
+            .httpMethod(step.getHttpMethod())
+            .openApiSpec(step.getOpenApiSpec())
+            .dataMapping(step.getDataMapping())
+            .build();
+    }
+
+    private String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedBpmn(String name, String description, List<ProcessStep> steps, boolean validated) {
+    }
+}
@@ -0,0 +1,218 @@
+package ru.bankingapi.bpmntester.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.bankingapi.bpmntester.domain.PayloadBlob;
+import ru.bankingapi.bpmntester.domain.StepExecutionResult;
+import ru.bankingapi.bpmntester.repository.PayloadBlobRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed storage for step request and response bodies.
+ * <p>
+ * Each distinct body is written once as a {@link PayloadBlob} keyed by its SHA-256;
+ * step results only hold references, and the bodies are inflated when something
+ * reads them. Bodies over {@code payload-store.max-bytes} are truncated with a
+ * marker. Blobs are inserted in their own transaction so a concurrent insert of the
+ * same body can be retried by looking it up, and recently seen hashes are kept in a
+ * small LRU map to skip the lookup altogether.
+ * <p>
+ * Retention purges unreferenced blobs by {@code lastUsedAt}, so every reuse marks the
+ * blob as used before a result points at it. A remembered hash is trusted for
+ * {@code payload-store.touch-interval-minutes} after it was last marked; after that
+ * the mark is renewed, which also finds blobs that were purged in the meantime. The
+ * interval has to stay well below {@code retention.days}.
+ */
+@Service
+@Slf4j
+public class PayloadStore {
+
+    private static final String TRUNCATION_MARKER = "\n...[truncated: %d of %d stored]";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final PayloadBlobRepository blobRepository;
+    private final TransactionTemplate blobTransaction;
+
+    @Value("${payload-store.max-bytes:1048576}")
+    private int maxBytes;
+
+    @Value("${payload-store.compress-above-bytes:256}")
+    private int compressAboveBytes;
+
+    @Value("${payload-store.max-inline-chars:8192}")
+    private int maxInlineChars;
+
+    @Value("${payload-store.known-hashes:4096}")
+    private int knownHashes;
+
+    @Value("${payload-store.touch-interval-minutes:60}")
+    private long touchIntervalMinutes;
+
+    private final Map<String, KnownBlob> blobIds = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, KnownBlob> eldest) {
+            return size() > knownHashes;
+        }
+    };
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    public PayloadStore(PayloadBlobRepository blobRepository, PlatformTransactionManager transactionManager) {
+        this.blobRepository = blobRepository;
+        this.blobTransaction = new TransactionTemplate(transactionManager);
+        this.blobTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Point the result's blob references at its current request and response bodies
+     * and cap the error texts it keeps inline.
+     */
+    public void store(StepExecutionResult result) {
+        if (result.getRequestPayload() != null) {
+            result.setRequestBlob(blobFor(result.getRequestPayload()));
+        }
+        if (result.getResponsePayload() != null) {
+            result.setResponseBlob(blobFor(result.getResponsePayload()));
+        }
+        result.setErrorMessage(capInline(result.getErrorMessage()));
+        result.setValidationErrors(capInline(result.getValidationErrors()));
+    }
+
+    /**
+     * Drop the remembered hash-to-blob ids, e.g. after unreferenced blobs were purged.
+     */
+    public void forgetKnownBlobs() {
+        synchronized (blobIds) {
+            blobIds.clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("blobsWritten", written.get());
+        stats.put("deduplicated", deduplicated.get());
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+
+    private PayloadBlob blobFor(String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        String sha256 = sha256(bytes);
+
+        Long id = knownId(sha256);
+        for (int attempt = 1; id == null; attempt++) {
+            try {
+                id = blobTransaction.execute(status -> blobRepository.findIdBySha256(sha256)
+                    .map(existing -> {
+                        blobRepository.touch(existing, LocalDateTime.now());
+                        deduplicated.incrementAndGet();
+                        return existing;
+                    })
+                    .orElseGet(() -> insert(sha256, body, bytes)));
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Concurrent insert of payload {}, retrying ({}/{})", sha256, attempt, MAX_ATTEMPTS);
+            }
+        }
+
+        synchronized (blobIds) {
+            blobIds.put(sha256, new KnownBlob(id, System.currentTimeMillis()));
+        }
+        return blobRepository.getReferenceById(id);
+    }
+
+    /**
+     * Id of a remembered blob that is still known to exist, renewing its use mark when
+     * it is older than the touch interval; {@code null} when the hash has to be looked up.
+     */
+    private Long knownId(String sha256) {
+        KnownBlob known;
+        synchronized (blobIds) {
+            known = blobIds.get(sha256);
+        }
+        if (known == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - known.touchedAt() >= touchIntervalMinutes * 60_000) {
+            Integer touched = blobTransaction.execute(status -> blobRepository.touch(known.id(), LocalDateTime.now()));
+            synchronized (blobIds) {
+                if (touched == null || touched == 0) {
+                    blobIds.remove(sha256);
+                    return null;
+                }
+                blobIds.put(sha256, new KnownBlob(known.id(), now));
+            }
+        }
+        deduplicated.incrementAndGet();
+        return known.id();
+    }
+
+    private Long insert(String sha256, String body, byte[] bytes) {
+        boolean truncated = bytes.length > maxBytes;
+        String stored = truncated ? truncate(body, bytes.length) : body;
+
+        PayloadBlob blob = blobRepository.saveAndFlush(
+            PayloadBlob.of(sha256, stored, bytes.length, truncated, compressAboveBytes)
+        );
+        written.incrementAndGet();
+        if (truncated) {
+            log.debug("Stored payload {} truncated from {} bytes", sha256, bytes.length);
+        }
+        return blob.getId();
+    }
+
+    private String capInline(String text) {
+        if (text == null || text.length() <= maxInlineChars) {
+            return text;
+        }
+        return text.substring(0, maxInlineChars)
+            + String.format(TRUNCATION_MARKER, maxInlineChars, (long) text.length());
+    }
+
+    /**
+     * Cut the body to roughly {@code maxBytes} UTF-8 bytes without splitting a character.
+     */
+    private String truncate(String body, long originalBytes) {
+        StringBuilder kept = new StringBuilder();
+        int bytes = 0;
+        for (int i = 0; i < body.length(); ) {
+            int codePoint = body.codePointAt(i);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (bytes + size > maxBytes) {
+                break;
+            }
+            kept.appendCodePoint(codePoint);
+            bytes += size;
+            i += Character.charCount(codePoint);
+        }
+        return kept.append(String.format(TRUNCATION_MARKER, bytes, originalBytes)).toString();
+    }
+
+    private record KnownBlob(Long id, long touchedAt) {
+    }
+
+    private String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package ru.bankingapi.bpmntester.service;
+
+import java.util.*;
+
+/**
+ * Sequence-flow graph of a BPMN process, indexed by node id.
+ * <p>
+ * Nodes are interned to dense indexes and edges are kept as adjacency lists in
+ * both directions, so ordering and dependency queries are linear in the size of
+ * the diagram. Outgoing edges keep their declaration order, which makes the
+ * ordering deterministic across parsers. Immutable once built.
+ */
+public class ProcessFlowGraph {
+
+    private final List<String> ids;
+    private final Map<String, Integer> indexes;
+    private final int[][] successors;
+    private final int[][] predecessors;
+
+    private ProcessFlowGraph(List<String> ids, Map<String, Integer> indexes, List<List<Integer>> outgoing) {
+        this.ids = List.copyOf(ids);
+        this.indexes = Map.copyOf(indexes);
+        this.successors = new int[ids.size()][];
+        this.predecessors = new int[ids.size()][];
+
+        int[] incomingCount = new int[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            successors[i] = outgoing.get(i).stream().mapToInt(Integer::intValue).toArray();
+            for (int target : successors[i]) {
+                incomingCount[target]++;
+            }
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            predecessors[i] = new int[incomingCount[i]];
+        }
+        int[] filled = new int[ids.size()];
+        for (int source = 0; source < ids.size(); source++) {
+            for (int target : successors[source]) {
+                predecessors[target][filled[target]++] = source;
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int nodeCount() {
+        return ids.size();
+    }
+
+    public boolean contains(String id) {
+        return indexes.containsKey(id);
+    }
+
+    public List<String> successors(String id) {
+        return idsOf(id, successors);
+    }
+
+    public List<String> predecessors(String id) {
+        return idsOf(id, predecessors);
+    }
+
+    /**
+     * Nodes reachable from {@code startId} in topological order (reverse postorder of
+     * an iterative depth-first search). Branches after a gateway appear in declaration
+     * order and a join appears after every branch leading into it; edges that close a
+     * loop are ignored.
+     */
+    public List<String> topologicalOrder(String startId) {
+        Integer start = startId != null ? indexes.get(startId) : null;
+        if (start == null) {
+            return List.of();
+        }
+
+        boolean[] visited = new boolean[ids.size()];
+        int[] nextEdge = new int[ids.size()];
+        Deque<Integer> stack = new ArrayDeque<>();
+        List<String> postorder = new ArrayList<>();
+
+        visited[start] = true;
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            int node = stack.peek();
+            int[] edges = successors[node];
+            // Walk outgoing edges last-to-first so the first declared branch ends up first
+            if (nextEdge[node] < edges.length) {
+                int target = edges[edges.length - 1 - nextEdge[node]++];
+                if (!visited[target]) {
+                    visited[target] = true;
+                    stack.push(target);
+                }
+            } else {
+                stack.pop();
+                postorder.add(ids.get(node));
+            }
+        }
+
+        Collections.reverse(postorder);
+        return postorder;
+    }
+
+    /**
+     * For each of the given nodes, the nearest upstream nodes that are also in the set,
+     * looking through gateways and events in between. Nodes with no such predecessor can
+     * start as soon as the process does.
+     */
+    public Map<String, Set<String>> dependencies(Collection<String> nodeIds) {
+        Set<Integer> selected = new HashSet<>();
+        for (String id : nodeIds) {
+            Integer index = indexes.get(id);
+            if (index != null) {
+                selected.add(index);
+            }
+        }
+
+        Map<String, Set<String>> result = new LinkedHashMap<>();
+        for (String id : nodeIds) {
+            Integer index = indexes.get(id);
+            Set<String> upstream = new LinkedHashSet<>();
+            if (index != null) {
+                boolean[] seen = new boolean[ids.size()];
+                Deque<Integer> pending = new ArrayDeque<>();
+                seen[index] = true;
+                for (int predecessor : predecessors[index]) {
+                    pending.add(predecessor);
+                }
+                while (!pending.isEmpty()) {
+                    int node = pending.poll();
+                    if (seen[node]) {
+                        continue;
+                    }
+                    seen[node] = true;
+                    if (selected.contains(node)) {
+                        upstream.add(ids.get(node));
+                    } else {
+                        for (int predecessor : predecessors[node]) {
+                            pending.add(predecessor);
+                        }
+                    }
+                }
+            }
+            result.put(id, Collections.unmodifiableSet(upstream));
+        }
+        return result;
+    }
+
+    private List<String> idsOf(String id, int[][] edges) {
+        Integer index = indexes.get(id);
+        if (index == null) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>(edges[index].length);
+        for (int target : edges[index]) {
+            result.add(ids.get(target));
+        }
+        return result;
+    }
+
+    public static final class Builder {
+
+        private final List<String> ids = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<List<Integer>> outgoing = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder addNode(String id) {
+            index(id);
+            return this;
+        }
+
+        public Builder addFlow(String sourceId, String targetId) {
+            if (sourceId != null && targetId != null) {
+                int source = index(sourceId);
+                int target = index(targetId);
+                outgoing.get(source).add(target);
+            }
+            return this;
+        }
+
+        public ProcessFlowGraph build() {
+            return new ProcessFlowGraph(ids, indexes, outgoing);
+        }
+
+        private int index(String id) {
+            Integer existing = indexes.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            int index = ids.size();
+            ids.add(id);
+            indexes.put(id, index);
+            outgoing.add(new ArrayList<>(1));
+            return index;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package ru.bankingapi.bpmntester.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.bankingapi.bpmntester.domain.*;
+import ru.bankingapi.bpmntester.repository.BusinessProcessRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Turns uploaded diagrams and OpenAPI specs into {@link BusinessProcess} entities,
+ * one at a time for {@code /processes/upload} or in bulk from a ZIP archive.
+ * <p>
+ * Archive entries are read straight from the request stream into memory. Specs are
+ * parsed first and indexed once; every diagram is matched against the specs in its
+ * own directory and its parent directories. Parsing runs on a bounded pool and all
+ * processes are saved in one transaction so Hibernate can batch the inserts.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProcessImportService {
+
+    private final BpmnParserService bpmnParser;
+    private final StreamingBpmnParser streamingBpmnParser;
+    private final SequenceDiagramParser sequenceParser;
+    private final OpenApiParserService openApiParser;
+    private final ParseCacheService parseCache;
+    private final MockApiService mockApiService;
+    private final AiPregenerationService pregenerationService;
+    private final BusinessProcessRepository processRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${bpmn.parser.streaming:false}")
+    private boolean streamingParser;
+
+    @Value("${bpmn.parser.validate:true}")
+    private boolean validateBpmn;
+
+    @Value("${process-import.parallelism:4}")
+    private int parallelism;
+
+    @Value("${process-import.max-entry-bytes:10485760}")
+    private long maxEntryBytes;
+
+    @Value("${process-import.max-total-bytes:104857600}")
+    private long maxTotalBytes;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void startPool() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "process-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopPool() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Parse a BPMN upload through the parse cache; {@code validate == null} uses the configured default.
+     * Content is validated once: on a cache miss, or on a hit that was cached without validation.
+     */
+    public BusinessProcess parseBpmn(byte[] content, String processName, Boolean validate) {
+        return parseCache.getOrParseBpmn(
+            content,
+            processName,
+            validate != null ? validate : validateBpmn,
+            bpmnParser::validateBpmnXml,
+            bpmnXml -> streamingParser
+                ? streamingBpmnParser.parseBpmnXml(bpmnXml, null)
+                : bpmnParser.parseBpmnXml(bpmnXml, null)
+        );
+    }
+
+    public BusinessProcess parseSequenceDiagram(byte[] content, String processName) {
+        String diagramText = new String(content, StandardCharsets.UTF_8);
+        sequenceParser.validateSequenceDiagram(diagramText);
+        BusinessProcess process = sequenceParser.parseSequenceDiagram(diagramText, processName);
+        for (ProcessStep step : process.getSteps()) {
+            step.setBusinessProcess(process);
+        }
+        return process;
+    }
+
+    /**
+     * Extract (or reuse) the endpoints of a spec, register them with the mock server
+     * and index them for matching.
+     */
+    public EndpointIndex loadSpec(byte[] content) {
+        List<ApiEndpointInfo> endpoints = parseCache.getOrExtractEndpoints(
+            content, openApiParser::extractAllEndpoints
+        );
+        mockApiService.registerEndpoints(endpoints);
+        return openApiParser.buildEndpointIndex(endpoints);
+    }
+
+    /**
+     * Fill in endpoints for steps that have none; the first spec with a match wins.
+     * The spec operations are kept with the process so the mock server can serve them
+     * again after a restart.
+     */
+    public void matchEndpoints(BusinessProcess process, List<EndpointIndex> specs) {
+        process.setMockEndpoints(mockApiService.describeEndpoints(
+            specs.stream().flatMap(index -> index.getEndpoints().stream()).toList()
+        ));
+        for (EndpointIndex index : specs) {
+            for (ProcessStep step : process.getSteps()) {
+                if (step.getApiEndpoint() == null || step.getApiEndpoint().isBlank()) {
+                    ApiEndpointInfo match = index.findBestMatch(step.getStepName(), "");
+
+                    if (match != null) {
+                        step.setApiEndpoint(match.getPath());
+                        step.setHttpMethod(match.getMethod());
+                        log.info("Auto-matched '{}' to {} {}", step.getStepName(), match.getMethod(), match.getPath());
+                    }
+                }
+            }
+        }
+    }
+
+    public ProcessImportResult importArchive(InputStream archive) throws IOException {
+        long started = System.currentTimeMillis();
+        List<ProcessImportResult.ImportError> errors = Collections.synchronizedList(new ArrayList<>());
+
+        List<ArchiveEntry> entries = readArchive(archive);
+        log.info("Importing archive with {} entries", entries.size());
+
+        Map<ArchiveEntry, Future<EndpointIndex>> specTasks = new LinkedHashMap<>();
+        for (ArchiveEntry entry : entries) {
+            if (entry.type() == EntryType.OPENAPI) {
+                specTasks.put(entry, executor.submit(() -> loadSpec(entry.content())));
+            }
+        }
+
+        Map<String, List<EndpointIndex>> specsByDirectory = new HashMap<>();
+        specTasks.forEach((entry, task) -> {
+            try {
+                specsByDirectory.computeIfAbsent(entry.directory(), d -> new ArrayList<>()).add(task.get());
+            } catch (Exception e) {
+                errors.add(importError(entry, e));
+            }
+        });
+        int specCount = specsByDirectory.values().stream().mapToInt(List::size).sum();
+
+        Map<ArchiveEntry, Future<BusinessProcess>> diagramTasks = new LinkedHashMap<>();
+        for (ArchiveEntry entry : entries) {
+            if (entry.type() == EntryType.BPMN || entry.type() == EntryType.SEQUENCE) {
+                diagramTasks.put(entry, executor.submit(() -> {
+                    BusinessProcess process = parseDiagram(entry);
+                    matchEndpoints(process, specsFor(entry, specsByDirectory));
+                    return process;
+                }));
+            }
+        }
+
+        List<BusinessProcess> processes = new ArrayList<>();
+        List<String> files = new ArrayList<>();
+        diagramTasks.forEach((entry, task) -> {
+            try {
+                processes.add(task.get());
+                files.add(entry.path());
+            } catch (Exception e) {
+                errors.add(importError(entry, e));
+            }
+        });
+
+        List<BusinessProcess> saved = transactionTemplate.execute(status -> processRepository.saveAll(processes));
+        saved.forEach(pregenerationService::prefill);
+
+        List<ProcessImportResult.ImportedProcess> imported = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i++) {
+            BusinessProcess process = saved.get(i);
+            imported.add(ProcessImportResult.ImportedProcess.builder()
+                .id(process.getId())
+                .name(process.getName())
+                .file(files.get(i))
+                .steps(process.getSteps().size())
+                .build());
+        }
+
+        long duration = System.currentTimeMillis() - started;
+        log.info("Imported {} processes and {} specs in {} ms ({} errors)",
+            imported.size(), specCount, duration, errors.size());
+
+        return ProcessImportResult.builder()
+            .imported(imported.size())
+            .specs(specCount)
+            .durationMs(duration)
+            .processes(imported)
+            .errors(new ArrayList<>(errors))
+            .build();
+    }
+
+    private BusinessProcess parseDiagram(ArchiveEntry entry) {
+        if (entry.type() == EntryType.SEQUENCE) {
+            return parseSequenceDiagram(entry.content(), entry.baseName());
+        }
+        BusinessProcess process = parseBpmn(entry.content(), null, null);
+        if (process.getName() == null || process.getName().isBlank()) {
+            process.setName(entry.baseName());
+        }
+        return process;
+    }
+
+    private List<EndpointIndex> specsFor(ArchiveEntry entry, Map<String, List<EndpointIndex>> specsByDirectory) {
+        List<EndpointIndex> specs = new ArrayList<>();
+        String directory = entry.directory();
+        while (true) {
+            specs.addAll(specsByDirectory.getOrDefault(directory, List.of()));
+            if (directory.isEmpty()) {
+                return specs;
+            }
+            int slash = directory.lastIndexOf('/', directory.length() - 2);
+            directory = slash >= 0 ? directory.substring(0, slash + 1) : "";
+        }
+    }
+
+    private List<ArchiveEntry> readArchive(InputStream archive) throws IOException {
+        List<ArchiveEntry> entries = new ArrayList<>();
+        long totalBytes = 0;
+
+        try (ZipInputStream zip = new ZipInputStream(archive, StandardCharsets.UTF_8)) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                String path = zipEntry.getName().replace('\\', '/');
+                EntryType type = EntryType.of(path);
+
+                if (zipEntry.isDirectory() || type == null || isHidden(path)) {
+                    log.debug("Skipping archive entry {}", path);
+                    continue;
+                }
+
+                byte[] content = readEntry(zip, path);
+                totalBytes += content.length;
+                if (totalBytes > maxTotalBytes) {
+                    throw new IllegalArgumentException("Archive exceeds " + maxTotalBytes + " bytes uncompressed");
+                }
+                entries.add(new ArchiveEntry(path, type, content));
+            }
+        }
+
+        return entries;
+    }
+
+    private byte[] readEntry(ZipInputStream zip, String path) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = zip.read(buffer)) > 0) {
+            if (out.size() + read > maxEntryBytes) {
+                throw new IllegalArgumentException("Archive entry " + path + " exceeds " + maxEntryBytes + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private boolean isHidden(String path) {
+        if (path.startsWith("__MACOSX/")) {
+            return true;
+        }
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        return name.startsWith(".");
+    }
+
+    private ProcessImportResult.ImportError importError(ArchiveEntry entry, Exception e) {
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        log.warn("Failed to import {}: {}", entry.path(), cause.getMessage());
+        return ProcessImportResult.ImportError.builder()
+            .file(entry.path())
+            .error(cause.getMessage())
+            .build();
+    }
+
+    private enum EntryType {
+        BPMN, SEQUENCE, OPENAPI;
+
+        static EntryType of(String path) {
+            String name = path.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".bpmn") || name.endsWith(".xml")) {
+                return BPMN;
+            }
+            if (name.endsWith(".puml") || name.endsWith(".plantuml") || name.endsWith(".pu")) {
+                return SEQUENCE;
+            }
+            if (name.endsWith(".yaml") || name.endsWith(".yml") || name.endsWith(".json")) {
+                return OPENAPI;
+            }
+            return null;
+        }
+    }
+
+    private record ArchiveEntry(String path, EntryType type, byte[] content) {
+
+        String directory() {
+            return path.substring(0, path.lastIndexOf('/') + 1);
+        }
+
+        String baseName() {
+            String name = path.substring(path.lastIndexOf('/') + 1);
+            int dot = name.indexOf('.');
+            return dot > 0 ? name.substring(0, dot) : name;
+        }
+    }
+}
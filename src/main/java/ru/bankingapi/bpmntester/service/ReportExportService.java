@@ -1,25 +1,52 @@
 package ru.bankingapi.bpmntester.service;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.bankingapi.bpmntester.domain.*;
+import ru.bankingapi.bpmntester.repository.StepExecutionResultRepository;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class ReportExportService {
 
+    private static final int WRITE_BUFFER_SIZE = 16 * 1024;
+
     private final ObjectMapper objectMapper;
+    private final StepExecutionResultRepository stepResultRepository;
+    private final EntityManager entityManager;
 
-    public String exportToHtml(TestExecution execution) {
-        StringBuilder html = new StringBuilder();
-        
+    /**
+     * Write the report in the given format. Step results are streamed from the
+     * database and written one by one, so memory use does not grow with the report.
+     */
+    public void export(TestExecution execution, ReportFormat format, OutputStream out) throws IOException {
+        if (format == ReportFormat.JSON) {
+            writeJson(execution, out);
+            return;
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        if (format == ReportFormat.HTML) {
+            writeHtml(execution, writer);
+        } else {
+            writeCsv(execution, writer);
+        }
+        writer.flush();
+    }
+
+    private void writeHtml(TestExecution execution, Writer html) throws IOException {
         html.append("<!DOCTYPE html>\n");
         html.append("<html lang='en'>\n");
         html.append("<head>\n");
@@ -35,7 +62,7 @@ public class ReportExportService {
         html.append("  <div class='container'>\n");
         html.append("    <div class='header'>\n");
         html.append("      <h1>Test Execution Report</h1>\n");
-        html.append("      <div class='report-id'>Execution ID: ").append(execution.getId()).append("</div>\n");
+        html.append("      <div class='report-id'>Execution ID: ").append(String.valueOf(execution.getId())).append("</div>\n");
         html.append("    </div>\n");
         
         html.append("    <div class='summary'>\n");
@@ -46,11 +73,11 @@ public class ReportExportService {
         html.append("      <div class='summary-item'>\n");
         html.append("        <span class='label'>Status:</span>\n");
         html.append("        <span class='value status-").append(execution.getStatus().toString().toLowerCase()).append("'>");
-        html.append(execution.getStatus()).append("</span>\n");
+        html.append(String.valueOf(execution.getStatus())).append("</span>\n");
         html.append("      </div>\n");
         html.append("      <div class='summary-item'>\n");
         html.append("        <span class='label'>Mode:</span>\n");
-        html.append("        <span class='value'>").append(execution.getMode()).append("</span>\n");
+        html.append("        <span class='value'>").append(String.valueOf(execution.getMode())).append("</span>\n");
         html.append("      </div>\n");
         html.append("      <div class='summary-item'>\n");
         html.append("        <span class='label'>Started:</span>\n");
@@ -65,52 +92,11 @@ public class ReportExportService {
         html.append("    <div class='steps'>\n");
         html.append("      <h2>Test Steps</h2>\n");
         
-        for (StepExecutionResult result : execution.getStepResults()) {
-            html.append("      <div class='step status-").append(result.getStatus().toString().toLowerCase()).append("'>\n");
-            html.append("        <div class='step-header'>\n");
-            html.append("          <span class='step-icon'>").append(getStatusIcon(result.getStatus())).append("</span>\n");
-            html.append("          <span class='step-name'>").append(result.getProcessStep().getStepName()).append("</span>\n");
-            html.append("          <span class='step-time'>").append(result.getExecutionTimeMs()).append("ms</span>\n");
-            html.append("        </div>\n");
-            
-            html.append("        <div class='step-details'>\n");
-            html.append("          <div class='detail-row'>\n");
-            html.append("            <span class='detail-label'>Endpoint:</span>\n");
-            html.append("            <span class='detail-value'>");
-            html.append(result.getProcessStep().getHttpMethod()).append(" ");
-            html.append(result.getProcessStep().getApiEndpoint()).append("</span>\n");
-            html.append("          </div>\n");
-            
-            if (result.getHttpStatusCode() != null) {
-                html.append("          <div class='detail-row'>\n");
-                html.append("            <span class='detail-label'>HTTP Status:</span>\n");
-                html.append("            <span class='detail-value http-").append(getHttpStatusClass(result.getHttpStatusCode())).append("'>");
-                html.append(result.getHttpStatusCode()).append("</span>\n");
-                html.append("          </div>\n");
+        try (Stream<StepExecutionResult> results = stepResultRepository.streamWithPayloadsByExecutionId(execution.getId())) {
+            for (StepExecutionResult result : (Iterable<StepExecutionResult>) results::iterator) {
+                writeHtmlStep(result, html);
+                detach(result);
             }
-            
-            if (result.getErrorMessage() != null && !result.getErrorMessage().isEmpty()) {
-                html.append("          <div class='error-box'>\n");
-                html.append("            <strong>Error:</strong> ").append(escapeHtml(result.getErrorMessage())).append("\n");
-                html.append("          </div>\n");
-            }
-            
-            if (result.getRequestPayload() != null && !result.getRequestPayload().isEmpty()) {
-                html.append("          <details>\n");
-                html.append("            <summary>Request Payload</summary>\n");
-                html.append("            <pre>").append(escapeHtml(formatJson(result.getRequestPayload()))).append("</pre>\n");
-                html.append("          </details>\n");
-            }
-            
-            if (result.getResponsePayload() != null && !result.getResponsePayload().isEmpty()) {
-                html.append("          <details>\n");
-                html.append("            <summary>Response Payload</summary>\n");
-                html.append("            <pre>").append(escapeHtml(formatJson(result.getResponsePayload()))).append("</pre>\n");
-                html.append("          </details>\n");
-            }
-            
-            html.append("        </div>\n");
-            html.append("      </div>\n");
         }
         
         html.append("    </div>\n");
@@ -120,30 +106,15 @@ public class ReportExportService {
             html.append("      <h2>Recommendations</h2>\n");
             html.append("      <ul>\n");
             
-            execution.getStepResults().stream()
-                .filter(r -> r.getStatus() != StepStatus.SUCCESS)
-                .forEach(r -> {
+            try (Stream<StepExecutionResult> failed = stepResultRepository
+                    .streamByExecutionIdAndStatusNot(execution.getId(), StepStatus.SUCCESS)) {
+                for (StepExecutionResult r : (Iterable<StepExecutionResult>) failed::iterator) {
                     html.append("        <li><strong>").append(escapeHtml(r.getProcessStep().getStepName())).append(":</strong> ");
-                    
-                    if (r.getHttpStatusCode() != null) {
-                        if (r.getHttpStatusCode() == 401 || r.getHttpStatusCode() == 403) {
-                            html.append("Check authentication credentials and access permissions");
-                        } else if (r.getHttpStatusCode() == 404) {
-                            html.append("Verify endpoint URL and check if resource exists");
-                        } else if (r.getHttpStatusCode() == 400) {
-                            html.append("Review request payload format and required fields");
-                        } else if (r.getHttpStatusCode() >= 500) {
-                            html.append("Server error - contact API provider or check service health");
-                        } else {
-                            html.append("Review request parameters and API documentation");
-                        }
-                    } else if (r.getErrorMessage() != null && r.getErrorMessage().contains("timeout")) {
-                        html.append("Increase timeout settings or check network connectivity");
-                    } else {
-                        html.append("Check error message details and review step configuration");
-                    }
+                    html.append(recommendation(r));
                     html.append("</li>\n");
-                });
+                    detach(r);
+                }
+            }
             
             html.append("      </ul>\n");
             html.append("    </div>\n");
@@ -163,67 +134,154 @@ public class ReportExportService {
         html.append("</body>\n");
         html.append("</html>");
         
-        log.info("HTML report generated for execution {}", execution.getId());
-        return html.toString();
+        log.info("HTML report written for execution {}", execution.getId());
     }
 
-    public String exportToCsv(TestExecution execution) {
-        StringBuilder csv = new StringBuilder();
+    private void writeHtmlStep(StepExecutionResult result, Writer html) throws IOException {
+        html.append("      <div class='step status-").append(result.getStatus().toString().toLowerCase()).append("'>\n");
+        html.append("        <div class='step-header'>\n");
+        html.append("          <span class='step-icon'>").append(getStatusIcon(result.getStatus())).append("</span>\n");
+        html.append("          <span class='step-name'>").append(result.getProcessStep().getStepName()).append("</span>\n");
+        html.append("          <span class='step-time'>").append(String.valueOf(result.getExecutionTimeMs())).append("ms</span>\n");
+        html.append("        </div>\n");
+        
+        html.append("        <div class='step-details'>\n");
+        html.append("          <div class='detail-row'>\n");
+        html.append("            <span class='detail-label'>Endpoint:</span>\n");
+        html.append("            <span class='detail-value'>");
+        html.append(String.valueOf(result.getProcessStep().getHttpMethod())).append(" ");
+        html.append(String.valueOf(result.getProcessStep().getApiEndpoint())).append("</span>\n");
+        html.append("          </div>\n");
+        
+        if (result.getHttpStatusCode() != null) {
+            html.append("          <div class='detail-row'>\n");
+            html.append("            <span class='detail-label'>HTTP Status:</span>\n");
+            html.append("            <span class='detail-value http-").append(getHttpStatusClass(result.getHttpStatusCode())).append("'>");
+            html.append(String.valueOf(result.getHttpStatusCode())).append("</span>\n");
+            html.append("          </div>\n");
+        }
+        
+        if (result.getErrorMessage() != null && !result.getErrorMessage().isEmpty()) {
+            html.append("          <div class='error-box'>\n");
+            html.append("            <strong>Error:</strong> ").append(escapeHtml(result.getErrorMessage())).append("\n");
+            html.append("          </div>\n");
+        }
         
+        if (result.getRequestPayload() != null && !result.getRequestPayload().isEmpty()) {
+            html.append("          <details>\n");
+            html.append("            <summary>Request Payload</summary>\n");
+            html.append("            <pre>");
+            writePrettyJson(result.getRequestPayload(), html);
+            html.append("</pre>\n");
+            html.append("          </details>\n");
+        }
+        
+        if (result.getResponsePayload() != null && !result.getResponsePayload().isEmpty()) {
+            html.append("          <details>\n");
+            html.append("            <summary>Response Payload</summary>\n");
+            html.append("            <pre>");
+            writePrettyJson(result.getResponsePayload(), html);
+            html.append("</pre>\n");
+            html.append("          </details>\n");
+        }
+        
+        html.append("        </div>\n");
+        html.append("      </div>\n");
+    }
+
+    private String recommendation(StepExecutionResult r) {
+        if (r.getHttpStatusCode() != null) {
+            if (r.getHttpStatusCode() == 401 || r.getHttpStatusCode() == 403) {
+                return "Check authentication credentials and access permissions";
+            } else if (r.getHttpStatusCode() == 404) {
+                return "Verify endpoint URL and check if resource exists";
+            } else if (r.getHttpStatusCode() == 400) {
+                return "Review request payload format and required fields";
+            } else if (r.getHttpStatusCode() >= 500) {
+                return "Server error - contact API provider or check service health";
+            }
+            return "Review request parameters and API documentation";
+        } else if (r.getErrorMessage() != null && r.getErrorMessage().contains("timeout")) {
+            return "Increase timeout settings or check network connectivity";
+        }
+        return "Check error message details and review step configuration";
+    }
+
+    private void writeCsv(TestExecution execution, Writer csv) throws IOException {
         csv.append("Execution ID,Process Name,Status,Mode,Started At,Completed At\n");
-        csv.append(execution.getId()).append(",");
+        csv.append(String.valueOf(execution.getId())).append(",");
         csv.append(csvEscape(execution.getBusinessProcess().getName())).append(",");
-        csv.append(execution.getStatus()).append(",");
-        csv.append(execution.getMode()).append(",");
+        csv.append(String.valueOf(execution.getStatus())).append(",");
+        csv.append(String.valueOf(execution.getMode())).append(",");
         csv.append(formatDateTime(execution.getStartedAt())).append(",");
         csv.append(formatDateTime(execution.getCompletedAt())).append("\n\n");
         
         csv.append("Step Order,Step Name,Status,HTTP Status,Execution Time (ms),Error Message\n");
         
-        for (StepExecutionResult result : execution.getStepResults()) {
-            csv.append(result.getExecutionOrder()).append(",");
-            csv.append(csvEscape(result.getProcessStep().getStepName())).append(",");
-            csv.append(result.getStatus()).append(",");
-            csv.append(result.getHttpStatusCode() != null ? result.getHttpStatusCode() : "").append(",");
-            csv.append(result.getExecutionTimeMs()).append(",");
-            csv.append(csvEscape(result.getErrorMessage())).append("\n");
+        try (Stream<StepExecutionResult> results = stepResultRepository.streamByExecutionId(execution.getId())) {
+            for (StepExecutionResult result : (Iterable<StepExecutionResult>) results::iterator) {
+                csv.append(String.valueOf(result.getExecutionOrder())).append(",");
+                csv.append(csvEscape(result.getProcessStep().getStepName())).append(",");
+                csv.append(String.valueOf(result.getStatus())).append(",");
+                csv.append(result.getHttpStatusCode() != null ? result.getHttpStatusCode().toString() : "").append(",");
+                csv.append(String.valueOf(result.getExecutionTimeMs())).append(",");
+                csv.append(csvEscape(result.getErrorMessage())).append("\n");
+                detach(result);
+            }
         }
         
-        log.info("CSV report generated for execution {}", execution.getId());
-        return csv.toString();
+        log.info("CSV report written for execution {}", execution.getId());
     }
 
-    public String exportToJson(TestExecution execution) {
-        try {
-            Map<String, Object> report = new java.util.HashMap<>();
-            report.put("executionId", execution.getId());
-            report.put("processName", execution.getBusinessProcess().getName());
-            report.put("status", execution.getStatus());
-            report.put("mode", execution.getMode());
-            report.put("startedAt", execution.getStartedAt().toString());
-            report.put("completedAt", execution.getCompletedAt() != null ? execution.getCompletedAt().toString() : null);
-            report.put("steps", execution.getStepResults().stream()
-                .<Map<String, Object>>map(r -> {
-                    Map<String, Object> step = new java.util.HashMap<>();
-                    step.put("order", r.getExecutionOrder());
-                    step.put("name", r.getProcessStep().getStepName());
-                    step.put("status", r.getStatus());
-                    step.put("httpStatus", r.getHttpStatusCode());
-                    step.put("executionTimeMs", r.getExecutionTimeMs());
-                    step.put("errorMessage", r.getErrorMessage());
-                    step.put("endpoint", r.getProcessStep().getApiEndpoint());
-                    step.put("method", r.getProcessStep().getHttpMethod());
-                    return step;
-                })
-                .collect(Collectors.toList())
-            );
-            
-            report.put("aiAnalysis", execution.getAiAnalysis());
-            
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
-        } catch (Exception e) {
-            log.error("Failed to generate JSON report", e);
-            return "{}";
+    private void writeJson(TestExecution execution, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.useDefaultPrettyPrinter();
+
+            json.writeStartObject();
+            json.writeObjectField("executionId", execution.getId());
+            json.writeStringField("processName", execution.getBusinessProcess().getName());
+            json.writeObjectField("status", execution.getStatus());
+            json.writeObjectField("mode", execution.getMode());
+            json.writeStringField("startedAt", execution.getStartedAt() != null ? execution.getStartedAt().toString() : null);
+            json.writeStringField("completedAt", execution.getCompletedAt() != null ? execution.getCompletedAt().toString() : null);
+
+            json.writeArrayFieldStart("steps");
+            try (Stream<StepExecutionResult> results = stepResultRepository.streamByExecutionId(execution.getId())) {
+                for (StepExecutionResult r : (Iterable<StepExecutionResult>) results::iterator) {
+                    json.writeStartObject();
+                    json.writeObjectField("order", r.getExecutionOrder());
+                    json.writeStringField("name", r.getProcessStep().getStepName());
+                    json.writeObjectField("status", r.getStatus());
+                    json.writeObjectField("httpStatus", r.getHttpStatusCode());
+                    json.writeObjectField("executionTimeMs", r.getExecutionTimeMs());
+                    json.writeStringField("errorMessage", r.getErrorMessage());
+                    json.writeStringField("endpoint", r.getProcessStep().getApiEndpoint());
+                    json.writeStringField("method", r.getProcessStep().getHttpMethod());
+                    json.writeEndObject();
+                    detach(r);
+                }
+            }
+            json.writeEndArray();
+
+            json.writeStringField("aiAnalysis", execution.getAiAnalysis());
+            json.writeEndObject();
+        }
+
+        log.info("JSON report written for execution {}", execution.getId());
+    }
+
+    /**
+     * Detach a written result together with its payload blobs (or their unloaded
+     * proxies), which detaching the result alone would leave in the persistence context.
+     */
+    private void detach(StepExecutionResult result) {
+        entityManager.detach(result);
+        if (result.getRequestBlob() != null) {
+            entityManager.detach(result.getRequestBlob());
+        }
+        if (result.getResponseBlob() != null) {
+            entityManager.detach(result.getResponseBlob());
         }
     }
 
@@ -293,12 +351,35 @@ public class ReportExportService {
         return dateTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
     }
 
-    private String formatJson(String json) {
-        try {
-            Object obj = objectMapper.readValue(json, Object.class);
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(obj);
-        } catch (Exception e) {
-            return json;
+    /**
+     * Pretty-print a JSON payload into the HTML writer, escaping as it goes.
+     * Anything that is not valid JSON is written escaped as-is.
+     */
+    private void writePrettyJson(String payload, Writer html) throws IOException {
+        Writer escaped = new HtmlEscapingWriter(html);
+        if (!isJson(payload)) {
+            escaped.write(payload);
+            return;
+        }
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(escaped)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.useDefaultPrettyPrinter();
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        }
+    }
+
+    private boolean isJson(String payload) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            if (parser.nextToken() == null) {
+                return false;
+            }
+            parser.skipChildren();
+            return true;
+        } catch (IOException e) {
+            return false;
         }
     }
 
@@ -318,4 +399,42 @@ public class ReportExportService {
         }
         return text;
     }
-}
\ No newline at end of file
+
+    private static final class HtmlEscapingWriter extends FilterWriter {
+
+        private HtmlEscapingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            switch (c) {
+                case '&' -> out.write("&amp;");
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                case '"' -> out.write("&quot;");
+                case '\'' -> out.write("&#39;");
+                default -> out.write(c);
+            }
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                write(text.charAt(i));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package ru.bankingapi.bpmntester.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.bankingapi.bpmntester.domain.*;
+import ru.bankingapi.bpmntester.repository.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves old execution history out of the database.
+ * <p>
+ * Executions older than {@code retention.days} are written, a batch at a time, to
+ * gzipped JSONL files under {@code retention.archive-dir} and then bulk-deleted. Each
+ * batch is written to a temporary file in the transaction that deletes its rows and is
+ * only renamed to its archive name after that transaction commits, so a failed delete
+ * leaves no archive behind and the batch is simply picked up again. Execution and step
+ * metric rollups are kept, so process analytics still cover archived runs. Payload
+ * blobs no longer referenced by any result are purged afterwards.
+ * <p>
+ * With {@code retention.partitioned: true} (PostgreSQL with the monthly partitioned
+ * {@code step_execution_results} from {@code db/partitioning/postgresql.sql}) results
+ * in months that are entirely past the cutoff are not deleted row by row: their
+ * partitions are dropped once the executions in them are archived, and partitions
+ * for the coming months are created ahead of time. A partition that still holds
+ * results of an execution in the database (a rehydrated run, or one still pending or
+ * running) is kept; only the results of archived executions are deleted from it.
+ * <p>
+ * Archived executions can be restored with {@link #rehydrate}; they get new ids and
+ * are kept for another retention period.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RetentionService {
+
+    private static final String PARTITIONED_TABLE = "step_execution_results";
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARTITIONED_TABLE + "_p(\\d{4})(\\d{2})");
+    private static final Pattern ARCHIVE_NAME = Pattern.compile("executions-[0-9T-]+\\.jsonl\\.gz");
+    private static final DateTimeFormatter ARCHIVE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final LocalDateTime NO_PARTITION_BOUNDARY = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TestExecutionRepository executionRepository;
+    private final StepExecutionResultRepository stepResultRepository;
+    private final BusinessProcessRepository processRepository;
+    private final ProcessStepRepository processStepRepository;
+    private final PayloadBlobRepository blobRepository;
+    private final PayloadStore payloadStore;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${retention.enabled:false}")
+    private boolean enabled;
+
+    @Value("${retention.days:30}")
+    private int retentionDays;
+
+    @Value("${retention.archive-dir:archive}")
+    private String archiveDir;
+
+    @Value("${retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${retention.partitioned:false}")
+    private boolean partitioned;
+
+    @Value("${retention.partitions-ahead:2}")
+    private int partitionsAhead;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PostConstruct
+    void prepareStorage() {
+        if (partitioned) {
+            createUpcomingPartitions();
+        }
+    }
+
+    @Scheduled(cron = "${retention.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            run();
+        } catch (Exception e) {
+            log.error("Scheduled retention run failed", e);
+        }
+    }
+
+    /**
+     * Archive and remove every finished execution older than the retention period.
+     */
+    public RetentionRunResult run() throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Retention run already in progress");
+        }
+        try {
+            return archiveOlderThan(LocalDateTime.now().minusDays(retentionDays));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Archive files, newest first.
+     */
+    public List<Map<String, Object>> listArchives() throws IOException {
+        Path dir = Paths.get(archiveDir);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+
+        List<Map<String, Object>> archives = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(f -> ARCHIVE_NAME.matcher(f.getFileName().toString()).matches()).toList()) {
+                Map<String, Object> archive = new LinkedHashMap<>();
+                archive.put("name", file.getFileName().toString());
+                archive.put("bytes", Files.size(file));
+                archive.put("modifiedAt", Files.getLastModifiedTime(file).toString());
+                archives.add(archive);
+            }
+        }
+        archives.sort(Comparator.comparing((Map<String, Object> a) -> (String) a.get("name")).reversed());
+        return archives;
+    }
+
+    /**
+     * Restore executions from an archive file; an empty id set restores all of them.
+     * Returns the new execution id for every archived id that was restored.
+     */
+    public Map<Long, Long> rehydrate(String archiveName, Set<Long> executionIds) throws IOException {
+        Path file = archivePath(archiveName);
+        if (!Files.exists(file)) {
+            throw new IllegalArgumentException("Archive not found: " + archiveName);
+        }
+
+        List<ArchivedExecution> archived = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                ArchivedExecution execution = objectMapper.readValue(line, ArchivedExecution.class);
+                if (executionIds.isEmpty() || executionIds.contains(execution.getId())) {
+                    archived.add(execution);
+                }
+            }
+        }
+
+        Map<Long, Long> restored = transactionTemplate.execute(status -> {
+            Map<Long, Long> ids = new LinkedHashMap<>();
+            for (ArchivedExecution execution : archived) {
+                TestExecution saved = restore(execution);
+                if (saved != null) {
+                    ids.put(execution.getId(), saved.getId());
+                }
+            }
+            return ids;
+        });
+
+        log.info("Rehydrated {} of {} executions from {}", restored.size(), archived.size(), archiveName);
+        return restored;
+    }
+
+    private RetentionRunResult archiveOlderThan(LocalDateTime cutoff) throws IOException {
+        long started = System.currentTimeMillis();
+        // Results before this point live in partitions that are dropped as a whole
+        LocalDateTime partitionBoundary = partitioned
+            ? cutoff.toLocalDate().withDayOfMonth(1).atStartOfDay()
+            : NO_PARTITION_BOUNDARY;
+
+        String runStamp = LocalDateTime.now().format(ARCHIVE_STAMP);
+        List<String> files = new ArrayList<>();
+        int archived = 0;
+        int deletedResults = 0;
+
+        while (true) {
+            List<Long> ids = executionRepository.findIdsToArchive(cutoff, Limit.of(batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            String name = "executions-" + runStamp + "-" + (files.size() + 1) + ".jsonl.gz";
+            Path file = archivePath(name);
+            Path tmp = file.resolveSibling(name + ".tmp");
+            int[] deleted = new int[1];
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try {
+                        writeArchive(tmp, ids);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    deleted[0] = stepResultRepository.deleteByExecutionIds(ids, partitionBoundary);
+                    executionRepository.deleteByIdIn(ids);
+                });
+            } catch (RuntimeException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+            // The rows are gone now; if the rename fails the batch stays recoverable from the .tmp file
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            files.add(name);
+            archived += ids.size();
+            deletedResults += deleted[0];
+            log.info("Archived {} executions to {}", ids.size(), name);
+        }
+
+        List<String> dropped = partitioned ? dropPartitionsBefore(partitionBoundary) : List.of();
+        if (partitioned) {
+            createUpcomingPartitions();
+        }
+
+        int purged = transactionTemplate.execute(status -> blobRepository.deleteUnreferencedUnusedSince(cutoff));
+        if (purged > 0) {
+            payloadStore.forgetKnownBlobs();
+        }
+
+        long duration = System.currentTimeMillis() - started;
+        log.info("Retention run: {} executions archived, {} results deleted, {} partitions dropped, " +
+            "{} payloads purged in {} ms", archived, deletedResults, dropped.size(), purged, duration);
+
+        return RetentionRunResult.builder()
+            .cutoff(cutoff)
+            .archivedExecutions(archived)
+            .deletedResults(deletedResults)
+            .purgedPayloads(purged)
+            .archiveFiles(files)
+            .droppedPartitions(dropped)
+            .durationMs(duration)
+            .build();
+    }
+
+    /**
+     * Write the executions to {@code file}, replacing whatever an earlier failed attempt left there.
+     */
+    private void writeArchive(Path file, List<Long> ids) throws IOException {
+        Files.createDirectories(file.getParent());
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+            new GZIPOutputStream(Files.newOutputStream(file), 8192), StandardCharsets.UTF_8))) {
+            for (TestExecution execution : executionRepository.findAllWithProcessByIdIn(ids)) {
+                writer.write(objectMapper.writeValueAsString(toArchived(execution)));
+                writer.write('\n');
+                entityManager.detach(execution);
+            }
+        }
+    }
+
+    private ArchivedExecution toArchived(TestExecution execution) {
+        List<ArchivedExecution.Result> results = new ArrayList<>();
+        try (Stream<StepExecutionResult> stream = stepResultRepository.streamWithPayloadsByExecutionId(execution.getId())) {
+            stream.forEach(result -> {
+                ProcessStep step = result.getProcessStep();
+                results.add(ArchivedExecution.Result.builder()
+                    .processStepId(step.getId())
+                    .stepId(step.getStepId())
+                    .stepName(step.getStepName())
+                    .executionOrder(result.getExecutionOrder())
+                    .status(result.getStatus())
+                    .requestPayload(result.getRequestPayload())
+                    .responsePayload(result.getResponsePayload())
+                    .httpStatusCode(result.getHttpStatusCode())
+                    .errorMessage(result.getErrorMessage())
+                    .validationErrors(result.getValidationErrors())
+                    .executionTimeMs(result.getExecutionTimeMs())
+                    .executedAt(result.getExecutedAt())
+                    .build());
+                entityManager.detach(result);
+                if (result.getRequestBlob() != null) {
+                    entityManager.detach(result.getRequestBlob());
+                }
+                if (result.getResponseBlob() != null) {
+                    entityManager.detach(result.getResponseBlob());
+                }
+            });
+        }
+
+        return ArchivedExecution.builder()
+            .id(execution.getId())
+            .processId(execution.getBusinessProcess().getId())
+            .processName(execution.getBusinessProcess().getName())
+            .mode(execution.getMode())
+            .status(execution.getStatus())
+            .startedAt(execution.getStartedAt())
+            .completedAt(execution.getCompletedAt())
+            .aiAnalysis(execution.getAiAnalysis())
+            .errorSummary(execution.getErrorSummary())
+            .dataSeed(execution.getDataSeed())
+            .results(results)
+            .build();
+    }
+
+    private TestExecution restore(ArchivedExecution archived) {
+        Optional<BusinessProcess> process = processRepository.findById(archived.getProcessId());
+        if (process.isEmpty()) {
+            log.warn("Cannot rehydrate execution {}: process {} no longer exists",
+                archived.getId(), archived.getProcessId());
+            return null;
+        }
+
+        Map<Long, ProcessStep> stepsById = new HashMap<>();
+        Map<String, ProcessStep> stepsByStepId = new HashMap<>();
+        for (ProcessStep step : processStepRepository.findByBusinessProcessIdOrderByStepOrder(archived.getProcessId())) {
+            stepsById.put(step.getId(), step);
+            stepsByStepId.putIfAbsent(step.getStepId(), step);
+        }
+
+        TestExecution execution = executionRepository.save(TestExecution.builder()
+            .businessProcess(process.get())
+            .mode(archived.getMode())
+            .status(archived.getStatus())
+            .startedAt(archived.getStartedAt())
+            .completedAt(archived.getCompletedAt())
+            .aiAnalysis(archived.getAiAnalysis())
+            .errorSummary(archived.getErrorSummary())
+            .dataSeed(archived.getDataSeed())
+            .rehydratedAt(LocalDateTime.now())
+            .stepResults(new ArrayList<>())
+            .build());
+
+        List<ArchivedExecution.Result> results = archived.getResults() != null ? archived.getResults() : List.of();
+        for (ArchivedExecution.Result archivedResult : results) {
+            ProcessStep step = stepsById.getOrDefault(
+                archivedResult.getProcessStepId(), stepsByStepId.get(archivedResult.getStepId())
+            );
+            if (step == null) {
+                log.warn("Skipping archived result of execution {}: step {} no longer exists",
+                    archived.getId(), archivedResult.getStepId());
+                continue;
+            }
+
+            StepExecutionResult result = StepExecutionResult.builder()
+                .testExecution(execution)
+                .processStep(step)
+                .executionOrder(archivedResult.getExecutionOrder())
+                .status(archivedResult.getStatus())
+                .requestPayload(archivedResult.getRequestPayload())
+                .responsePayload(archivedResult.getResponsePayload())
+                .httpStatusCode(archivedResult.getHttpStatusCode())
+                .errorMessage(archivedResult.getErrorMessage())
+                .validationErrors(archivedResult.getValidationErrors())
+                .executionTimeMs(archivedResult.getExecutionTimeMs())
+                .executedAt(archivedResult.getExecutedAt())
+                .build();
+            payloadStore.store(result);
+            execution.getStepResults().add(stepResultRepository.save(result));
+        }
+
+        return execution;
+    }
+
+    private Path archivePath(String name) {
+        if (name == null || !ARCHIVE_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid archive name: " + name);
+        }
+        return Paths.get(archiveDir, name);
+    }
+
+    private List<String> dropPartitionsBefore(LocalDateTime boundary) {
+        List<String> dropped = new ArrayList<>();
+        for (String partition : listPartitions()) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            LocalDate monthEnd = LocalDate.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)), 1)
+                .plusMonths(1);
+            if (!monthEnd.atStartOfDay().isAfter(boundary) && dropIfOnlyArchived(partition)) {
+                dropped.add(partition);
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Drop the partition unless some of its results belong to an execution that is still
+     * in the database; in that case only the results of archived executions are deleted.
+     * The partition is locked first so a concurrent rehydrate cannot slip rows in between
+     * the check and the drop.
+     */
+    private boolean dropIfOnlyArchived(String partition) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + partition + " IN ACCESS EXCLUSIVE MODE");
+            Boolean live = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + partition + " r " +
+                "JOIN test_executions e ON e.id = r.test_execution_id)", Boolean.class);
+
+            if (Boolean.TRUE.equals(live)) {
+                int orphaned = jdbcTemplate.update("DELETE FROM " + partition + " r WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM test_executions e WHERE e.id = r.test_execution_id)");
+                log.info("Kept result partition {}: it holds results of live executions, " +
+                    "deleted {} archived results", partition, orphaned);
+                return false;
+            }
+
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Dropped result partition {}", partition);
+            return true;
+        });
+    }
+
+    private void createUpcomingPartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= partitionsAhead; i++) {
+            LocalDate from = month.plusMonths(i);
+            LocalDate to = from.plusMonths(1);
+            String partition = String.format("%s_p%04d%02d", PARTITIONED_TABLE, from.getYear(), from.getMonthValue());
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + PARTITIONED_TABLE +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        }
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+            "SELECT child.relname FROM pg_inherits i " +
+            "JOIN pg_class child ON child.oid = i.inhrelid " +
+            "JOIN pg_class parent ON parent.oid = i.inhparent " +
+            "WHERE parent.relname = ?",
+            String.class, PARTITIONED_TABLE
+        );
+    }
+}
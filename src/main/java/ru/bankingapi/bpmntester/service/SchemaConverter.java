@@ -0,0 +1,193 @@
+package ru.bankingapi.bpmntester.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.ComposedSchema;
+import io.swagger.v3.oas.models.media.Schema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Converts swagger {@link Schema} objects into the immutable map model stored in
+ * {@link ru.bankingapi.bpmntester.domain.ApiEndpointInfo}.
+ * <p>
+ * One converter is used per spec: a fully resolved spec points every use of a
+ * {@code $ref} at the same {@code Schema} instance, so results are memoized by
+ * identity and shared between all operations. A schema that refers back to one
+ * of its ancestors is cut off with a {@code {"type": ..., "recursive": true}} node.
+ * Numbers are normalized the way a Jackson round trip would read them back
+ * (integral values as {@code Integer}/{@code Long}, the rest as {@code Double}).
+ * Not thread-safe.
+ */
+class SchemaConverter {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Schema<?>, Map<String, Object>> converted = new IdentityHashMap<>();
+    private final Set<Schema<?>> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    SchemaConverter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    Map<String, Object> convert(Schema<?> schema) {
+        if (schema == null) {
+            return Map.of();
+        }
+
+        Map<String, Object> cached = converted.get(schema);
+        if (cached != null) {
+            return cached;
+        }
+        if (!inProgress.add(schema)) {
+            return recursiveReference(schema);
+        }
+
+        try {
+            Map<String, Object> model = new LinkedHashMap<>();
+            put(model, "type", typeOf(schema));
+            put(model, "format", schema.getFormat());
+            put(model, "title", schema.getTitle());
+            put(model, "description", schema.getDescription());
+            put(model, "$ref", schema.get$ref());
+            put(model, "enum", values(schema.getEnum()));
+            put(model, "required", schema.getRequired() != null ? List.copyOf(schema.getRequired()) : null);
+            put(model, "properties", properties(schema.getProperties()));
+            put(model, "items", schema.getItems() != null ? convert(schema.getItems()) : null);
+            put(model, "additionalProperties", additionalProperties(schema.getAdditionalProperties()));
+            put(model, "minimum", number(schema.getMinimum()));
+            put(model, "maximum", number(schema.getMaximum()));
+            put(model, "exclusiveMinimum", schema.getExclusiveMinimum());
+            put(model, "exclusiveMaximum", schema.getExclusiveMaximum());
+            put(model, "minLength", schema.getMinLength());
+            put(model, "maxLength", schema.getMaxLength());
+            put(model, "pattern", schema.getPattern());
+            put(model, "minItems", schema.getMinItems());
+            put(model, "maxItems", schema.getMaxItems());
+            put(model, "uniqueItems", schema.getUniqueItems());
+            put(model, "nullable", schema.getNullable());
+            put(model, "readOnly", schema.getReadOnly());
+            put(model, "writeOnly", schema.getWriteOnly());
+            put(model, "example", value(schema.getExample()));
+            put(model, "default", value(schema.getDefault()));
+
+            if (schema instanceof ComposedSchema composed) {
+                put(model, "allOf", schemas(composed.getAllOf()));
+                put(model, "oneOf", schemas(composed.getOneOf()));
+                put(model, "anyOf", schemas(composed.getAnyOf()));
+            }
+
+            Map<String, Object> result = Collections.unmodifiableMap(model);
+            converted.put(schema, result);
+            return result;
+        } finally {
+            inProgress.remove(schema);
+        }
+    }
+
+    int size() {
+        return converted.size();
+    }
+
+    private String typeOf(Schema<?> schema) {
+        if (schema.getType() != null) {
+            return schema.getType();
+        }
+        if (schema.getTypes() != null && !schema.getTypes().isEmpty()) {
+            return schema.getTypes().iterator().next();
+        }
+        if (schema instanceof ArraySchema) {
+            return "array";
+        }
+        return null;
+    }
+
+    private Map<String, Object> recursiveReference(Schema<?> schema) {
+        String type = typeOf(schema);
+        return Map.of("type", type != null ? type : "object", "recursive", true);
+    }
+
+    private Map<String, Object> properties(Map<String, Schema> properties) {
+        if (properties == null) {
+            return null;
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        properties.forEach((name, property) -> result.put(name, convert(property)));
+        return Collections.unmodifiableMap(result);
+    }
+
+    private List<Object> schemas(List<Schema> schemas) {
+        if (schemas == null) {
+            return null;
+        }
+        List<Object> result = new ArrayList<>(schemas.size());
+        for (Schema<?> schema : schemas) {
+            result.add(convert(schema));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private Object additionalProperties(Object additionalProperties) {
+        if (additionalProperties instanceof Schema<?> schema) {
+            return convert(schema);
+        }
+        return additionalProperties;
+    }
+
+    private List<Object> values(List<?> values) {
+        if (values == null) {
+            return null;
+        }
+        List<Object> result = new ArrayList<>(values.size());
+        for (Object value : values) {
+            result.add(value(value));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private Object value(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Number number) {
+            return number(number);
+        }
+        if (value instanceof JsonNode node) {
+            return objectMapper.convertValue(node, Object.class);
+        }
+        if (value instanceof Map<?, ?> || value instanceof Collection<?>) {
+            return objectMapper.convertValue(value, Object.class);
+        }
+        return value.toString();
+    }
+
+    private Object number(Number number) {
+        if (number == null) {
+            return null;
+        }
+        if (number instanceof BigDecimal decimal) {
+            if (decimal.scale() > 0) {
+                return decimal.doubleValue();
+            }
+            return number(decimal.toBigInteger());
+        }
+        if (number instanceof BigInteger integer) {
+            if (integer.bitLength() < Integer.SIZE) {
+                return integer.intValue();
+            }
+            return integer.bitLength() < Long.SIZE ? integer.longValue() : integer;
+        }
+        if (number instanceof Long value && value == value.intValue()) {
+            return value.intValue();
+        }
+        return number;
+    }
+
+    private static void put(Map<String, Object> model, String key, Object value) {
+        if (value != null) {
+            model.put(key, value);
+        }
+    }
+}
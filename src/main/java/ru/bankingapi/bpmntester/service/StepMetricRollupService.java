@@ -0,0 +1,117 @@
+package ru.bankingapi.bpmntester.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.bankingapi.bpmntester.domain.StepExecutionResult;
+import ru.bankingapi.bpmntester.domain.StepMetricRollup;
+import ru.bankingapi.bpmntester.domain.StepStatus;
+import ru.bankingapi.bpmntester.repository.StepMetricRollupRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Keeps {@link StepMetricRollup} rows up to date as step results are recorded.
+ * <p>
+ * Each result increments the row for its process, step, minute, latency bucket and
+ * error class: an update first, an insert when no row exists yet. Two executions
+ * inserting the same row race on the unique key; the loser retries and finds the
+ * row. Rollups are written in their own transaction so a long test execution holds
+ * no locks on them, and a failure here never fails the execution.
+ */
+@Service
+@Slf4j
+public class StepMetricRollupService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final StepMetricRollupRepository rollupRepository;
+    private final TransactionTemplate rollupTransaction;
+
+    @Value("${analytics.rollups.enabled:true}")
+    private boolean enabled;
+
+    public StepMetricRollupService(StepMetricRollupRepository rollupRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.rollupTransaction = new TransactionTemplate(transactionManager);
+        this.rollupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void record(Long processId, StepExecutionResult result) {
+        if (!enabled || processId == null || result.getProcessStep() == null
+            || result.getProcessStep().getId() == null) {
+            return;
+        }
+
+        Long stepId = result.getProcessStep().getId();
+        LocalDateTime executedAt = result.getExecutedAt() != null ? result.getExecutedAt() : LocalDateTime.now();
+        LocalDateTime minute = executedAt.truncatedTo(ChronoUnit.MINUTES);
+        Long latency = result.getExecutionTimeMs();
+        int bucket = latency != null ? LatencyHistogram.bucketOf(latency) : StepMetricRollup.UNTIMED;
+        String errorClass = errorClass(result.getStatus(), result.getHttpStatusCode());
+        long errors = result.getStatus() == StepStatus.SUCCESS ? 0 : 1;
+        long latencyMs = latency != null ? latency : 0;
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                rollupTransaction.executeWithoutResult(status -> {
+                    int updated = rollupRepository.increment(
+                        processId, stepId, minute, bucket, errorClass, errors, latencyMs
+                    );
+                    if (updated == 0) {
+                        rollupRepository.saveAndFlush(StepMetricRollup.builder()
+                            .processId(processId)
+                            .processStepId(stepId)
+                            .minuteStart(minute)
+                            .latencyBucket(bucket)
+                            .errorClass(errorClass)
+                            .sampleCount(1)
+                            .errorCount(errors)
+                            .latencySumMs(latencyMs)
+                            .latencyMaxMs(latencyMs)
+                            .build());
+                    }
+                });
+                return;
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Concurrent rollup insert for step {} at {}, retrying ({}/{})",
+                    stepId, minute, attempt, MAX_ATTEMPTS);
+            } catch (Exception e) {
+                log.warn("Failed to update step metrics for step {}: {}", stepId, e.getMessage());
+                return;
+            }
+        }
+        log.warn("Gave up updating step metrics for step {} at {}", stepId, minute);
+    }
+
+    /**
+     * Error class of a step result, {@link StepMetricRollup#NO_ERROR} for successful ones.
+     */
+    static String errorClass(StepStatus status, Integer httpStatus) {
+        if (status == StepStatus.SUCCESS) {
+            return StepMetricRollup.NO_ERROR;
+        }
+        if (status == StepStatus.TIMEOUT) {
+            return "TIMEOUT";
+        }
+        if (status == StepStatus.VALIDATION_ERROR) {
+            return "VALIDATION";
+        }
+        if (status == StepStatus.SKIPPED) {
+            return "SKIPPED";
+        }
+        if (httpStatus == null) {
+            return "NO_RESPONSE";
+        }
+        if (httpStatus == 401 || httpStatus == 403) {
+            return "AUTH";
+        }
+        return "HTTP_" + (httpStatus / 100) + "XX";
+    }
+}
@@ -0,0 +1,309 @@
+package ru.bankingapi.bpmntester.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.bankingapi.bpmntester.domain.*;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.*;
+
+/**
+ * Single-pass StAX parser for BPMN diagrams.
+ * <p>
+ * Produces the same steps as {@link BpmnParserService#parseBpmnXml} without building
+ * the Camunda model: tasks, their first documentation, Camunda extension properties,
+ * sequence flows and the first start event are collected while reading, and the
+ * shared extraction rules of {@link BpmnParserService} are applied afterwards.
+ * Schema validation is not performed here; use {@link BpmnParserService#validateBpmnXml}
+ * when it is required.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class StreamingBpmnParser {
+
+    private static final String BPMN_NS = "http://www.omg.org/spec/BPMN/20100524/MODEL";
+    private static final String CAMUNDA_NS = "http://camunda.org/schema/1.0/bpmn";
+
+    private static final Set<String> REGULAR_TASKS = Set.of(
+        "task", "userTask", "scriptTask", "sendTask", "receiveTask", "manualTask", "businessRuleTask"
+    );
+    private static final Set<String> OTHER_FLOW_NODES = Set.of(
+        "subProcess", "adHocSubProcess", "transaction", "callActivity",
+        "intermediateCatchEvent", "intermediateThrowEvent", "boundaryEvent"
+    );
+    private static final Set<String> SKIPPED_FLOW_NODES = Set.of(
+        "startEvent", "endEvent", "exclusiveGateway", "parallelGateway", "inclusiveGateway",
+        "eventBasedGateway", "complexGateway"
+    );
+
+    private final BpmnParserService bpmnParser;
+
+    private final XMLInputFactory inputFactory = createInputFactory();
+
+    public BusinessProcess parseBpmnXml(String bpmnXml, String processName) {
+        BusinessProcess process = parse(new StringReader(bpmnXml), processName);
+        process.setBpmnXml(bpmnXml);
+        return process;
+    }
+
+    /**
+     * Parse a diagram from a reader. The returned process has no {@code bpmnXml}.
+     */
+    public BusinessProcess parse(Reader bpmn, String processName) {
+        ParsedDiagram diagram;
+        try {
+            diagram = read(bpmn);
+        } catch (XMLStreamException e) {
+            log.error("Failed to parse BPMN XML", e);
+            throw new RuntimeException("Cannot parse BPMN XML: " + e.getMessage(), e);
+        }
+
+        if (!diagram.hasProcess) {
+            throw new RuntimeException("Cannot parse BPMN XML: No BPMN process found in XML");
+        }
+
+        BusinessProcess businessProcess = BusinessProcess.builder()
+            .name(processName != null ? processName : diagram.processName)
+            .description(diagram.processDescription != null ? diagram.processDescription : "No description provided")
+            .steps(new ArrayList<>())
+            .build();
+
+        List<ProcessStep> steps = new ArrayList<>();
+        int serviceTasks = 0;
+        int regularTasks = 0;
+        for (ParsedNode node : diagram.nodes) {
+            if (node.kind == NodeKind.SERVICE_TASK) {
+                steps.add(toStep(node, businessProcess, serviceTasks++, false));
+            }
+        }
+        for (ParsedNode node : diagram.nodes) {
+            if (node.kind == NodeKind.REGULAR_TASK) {
+                steps.add(toStep(node, businessProcess, regularTasks++, true));
+            }
+        }
+
+        log.info("Extracted ServiceTasks: {}, RegularTasks: {}", serviceTasks, regularTasks);
+
+        if (steps.isEmpty()) {
+            log.warn("No tasks found in standard way, trying all FlowNodes");
+            int order = 0;
+            for (ParsedNode node : diagram.nodes) {
+                if (node.kind != NodeKind.SKIPPED && node.name != null && !node.name.isEmpty()) {
+                    steps.add(toStep(node, businessProcess, order++, true));
+                }
+            }
+        }
+
+        steps = bpmnParser.orderByFlow(steps, diagram.flows.build(), diagram.startEventId);
+        businessProcess.setSteps(steps);
+
+        log.info("Parsed BPMN process '{}' with {} tasks (streaming, {} nodes, {} flows)",
+            businessProcess.getName(), steps.size(), diagram.nodes.size(), diagram.flowCount);
+
+        return businessProcess;
+    }
+
+    private ProcessStep toStep(ParsedNode node, BusinessProcess businessProcess, int order, boolean parseName) {
+        ProcessStep step = ProcessStep.builder()
+            .businessProcess(businessProcess)
+            .stepId(node.id)
+            .stepName(node.name)
+            .stepOrder(order)
+            .stepType(StepType.SERVICE_TASK)
+            .build();
+
+        if (parseName) {
+            bpmnParser.extractApiInfoFromTaskName(node.name, step);
+        }
+        if (node.documentation != null) {
+            bpmnParser.parseApiInfoFromDocumentation(node.documentation, step);
+        }
+        if (!node.properties.isEmpty()) {
+            bpmnParser.applyExtensionProperties(node.properties, step);
+        }
+
+        return step;
+    }
+
+    private ParsedDiagram read(Reader bpmn) throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(bpmn);
+        ParsedDiagram diagram = new ParsedDiagram();
+
+        // Open elements and the flow node (if any) each of them belongs to
+        Deque<QName> elements = new ArrayDeque<>();
+        Deque<ParsedNode> openNodes = new ArrayDeque<>();
+        Deque<Boolean> opensNode = new ArrayDeque<>();
+        boolean inFirstProcess = false;
+
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    QName closed = elements.pop();
+                    if (opensNode.pop()) {
+                        openNodes.pop();
+                    }
+                    if (inFirstProcess && isBpmn(closed, "process")) {
+                        inFirstProcess = false;
+                    }
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+
+                QName element = reader.getName();
+                QName parent = elements.peek();
+                String localName = element.getLocalPart();
+
+                if (isBpmn(element, "documentation")) {
+                    // getElementText consumes the END_ELEMENT, so the element is never pushed
+                    String text = reader.getElementText();
+                    if (parent != null && isBpmn(parent, "process") && inFirstProcess
+                        && diagram.processDescription == null) {
+                        diagram.processDescription = text;
+                    } else if (!openNodes.isEmpty() && opensNode.peek() && openNodes.peek().documentation == null) {
+                        openNodes.peek().documentation = text;
+                    }
+                    continue;
+                }
+
+                boolean startsNode = false;
+                if (BPMN_NS.equals(element.getNamespaceURI())) {
+                    if ("process".equals(localName)) {
+                        if (!diagram.hasProcess) {
+                            diagram.hasProcess = true;
+                            diagram.processName = reader.getAttributeValue(null, "name");
+                            inFirstProcess = true;
+                        }
+                    } else if ("sequenceFlow".equals(localName)) {
+                        String source = reader.getAttributeValue(null, "sourceRef");
+                        String target = reader.getAttributeValue(null, "targetRef");
+                        if (source != null && target != null) {
+                            diagram.flows.addFlow(source, target);
+                            diagram.flowCount++;
+                        }
+                    } else {
+                        NodeKind kind = kindOf(localName);
+                        if (kind != null) {
+                            ParsedNode node = new ParsedNode(
+                                reader.getAttributeValue(null, "id"),
+                                reader.getAttributeValue(null, "name"),
+                                kind
+                            );
+                            diagram.nodes.add(node);
+                            openNodes.push(node);
+                            startsNode = true;
+
+                            if ("startEvent".equals(localName) && diagram.startEventId == null) {
+                                diagram.startEventId = node.id;
+                            }
+                        }
+                    }
+                } else if (CAMUNDA_NS.equals(element.getNamespaceURI()) && "property".equals(localName)
+                    && belongsToNodeExtensions(elements, opensNode)) {
+                    openNodes.peek().properties.add(new AbstractMap.SimpleEntry<>(
+                        reader.getAttributeValue(null, "name"),
+                        reader.getAttributeValue(null, "value")
+                    ));
+                }
+
+                elements.push(element);
+                opensNode.push(startsNode);
+            }
+        } finally {
+            reader.close();
+        }
+
+        return diagram;
+    }
+
+    /**
+     * True for {@code node > extensionElements > property} and
+     * {@code node > extensionElements > properties > property}.
+     */
+    private boolean belongsToNodeExtensions(Deque<QName> elements, Deque<Boolean> opensNode) {
+        Iterator<QName> names = elements.iterator();
+        Iterator<Boolean> nodes = opensNode.iterator();
+        if (!names.hasNext()) {
+            return false;
+        }
+
+        QName parent = names.next();
+        nodes.next();
+        if (CAMUNDA_NS.equals(parent.getNamespaceURI()) && "properties".equals(parent.getLocalPart())) {
+            if (!names.hasNext()) {
+                return false;
+            }
+            parent = names.next();
+            nodes.next();
+        }
+
+        return isBpmn(parent, "extensionElements") && nodes.hasNext() && nodes.next();
+    }
+
+    private NodeKind kindOf(String localName) {
+        if ("serviceTask".equals(localName)) {
+            return NodeKind.SERVICE_TASK;
+        }
+        if (REGULAR_TASKS.contains(localName)) {
+            return NodeKind.REGULAR_TASK;
+        }
+        if (OTHER_FLOW_NODES.contains(localName)) {
+            return NodeKind.OTHER;
+        }
+        if (SKIPPED_FLOW_NODES.contains(localName)) {
+            return NodeKind.SKIPPED;
+        }
+        return null;
+    }
+
+    private static boolean isBpmn(QName name, String localName) {
+        return BPMN_NS.equals(name.getNamespaceURI()) && localName.equals(name.getLocalPart());
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private enum NodeKind {
+        SERVICE_TASK, REGULAR_TASK, OTHER, SKIPPED
+    }
+
+    private static final class ParsedNode {
+        private final String id;
+        private final String name;
+        private final NodeKind kind;
+        private String documentation;
+        private final List<Map.Entry<String, String>> properties = new ArrayList<>();
+
+        private ParsedNode(String id, String name, NodeKind kind) {
+            this.id = id;
+            this.name = name;
+            this.kind = kind;
+        }
+    }
+
+    private static final class ParsedDiagram {
+        private boolean hasProcess;
+        private String processName;
+        private String processDescription;
+        private String startEventId;
+        private final List<ParsedNode> nodes = new ArrayList<>();
+        private final ProcessFlowGraph.Builder flows = ProcessFlowGraph.builder();
+        private int flowCount;
+    }
+}
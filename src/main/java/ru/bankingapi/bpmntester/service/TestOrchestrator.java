@@ -18,25 +18,43 @@ import ru.bankingapi.bpmntester.repository.*;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TestOrchestrator {
 
+    private static final Pattern PATH_VARIABLE = Pattern.compile("\\{([^}]+)\\}");
+
+    private static final List<String> PROPAGATED_FIELDS = List.of(
+        "id", "accountId", "orderId", "transactionId", "externalAccountId", "externalAccountID"
+    );
+
     @Qualifier("standardRestTemplate")
     private final RestTemplate standardRestTemplate;
     
     @Qualifier("gostRestTemplate")
     private final RestTemplate gostRestTemplate;
+
+    @Qualifier("mockRestTemplate")
+    private final RestTemplate mockRestTemplate;
     
     private final OAuth2Service oauth2Service;
-    private final AiTestDataGenerator aiTestDataGenerator;
+    private final AiPregenerationService pregenerationService;
+    private final OpenApiParserService openApiParser;
     private final ValidationService validationService;
     private final TestExecutionRepository executionRepository;
     private final StepExecutionResultRepository stepResultRepository;
     private final ObjectMapper objectMapper;
     private final EndpointMappingService endpointMappingService;
+    private final DataMappingService dataMappingService;
+    private final TrafficCassetteService cassetteService;
+    private final HttpResponseCache responseCache;
+    private final StepMetricRollupService rollupService;
+    private final ExecutionMetricRollupService executionRollupService;
+    private final PayloadStore payloadStore;
+    private final MockApiService mockApiService;
 
     @Value("${banking-api.base-url}")
     private String baseUrl;
@@ -44,6 +62,9 @@ public class TestOrchestrator {
     @Value("${banking-api.gost-base-url}")
     private String gostBaseUrl;
 
+    @Value("${mock-server.base-url:http://mock.local}")
+    private String mockBaseUrl;
+
     @Value("${test-execution.timeout-seconds:30}")
     private int timeoutSeconds;
 
@@ -53,40 +74,64 @@ public class TestOrchestrator {
         Map<String, Object> initialContext,
         boolean generateTestData
     ) {
-        log.info("Starting test execution for process '{}' in {} mode", 
-            process.getName(), mode);
+        return executeProcess(process, mode, initialContext, generateTestData, CassetteMode.OFF, null);
+    }
+
+    /**
+     * Run the process once. Generated fallback data is drawn from a random seeded with
+     * {@code dataSeed} (a fresh seed when {@code null}, stored on the execution), so a run
+     * can be repeated with the same request bodies.
+     */
+    public TestExecution executeProcess(
+        BusinessProcess process,
+        ExecutionMode mode,
+        Map<String, Object> initialContext,
+        boolean generateTestData,
+        CassetteMode cassetteMode,
+        Long dataSeed
+    ) {
+        long seed = dataSeed != null ? dataSeed : ThreadLocalRandom.current().nextLong();
+        log.info("Starting test execution for process '{}' in {} mode (cassette: {}, data seed: {})", 
+            process.getName(), mode, cassetteMode, seed);
 
         TestExecution execution = TestExecution.builder()
             .businessProcess(process)
             .mode(mode)
             .status(ExecutionStatus.RUNNING)
             .startedAt(LocalDateTime.now())
+            .dataSeed(seed)
             .stepResults(new ArrayList<>())
             .build();
 
         execution = executionRepository.save(execution);
+        executionRollupService.record(process.getId(), execution.getStartedAt(), null, execution.getStatus());
+        TrafficCassetteService.CassetteSession cassette = null;
 
         try {
-            Map<String, Object> executionContext = new HashMap<>();
-            if (initialContext != null) {
-                executionContext.putAll(initialContext);
-            }
+            ExecutionContext executionContext = new ExecutionContext(objectMapper, initialContext);
 
-            RestTemplate restTemplate = selectRestTemplate(mode);
-            String apiBaseUrl = selectBaseUrl(mode);
+            cassette = cassetteService.open(process, cassetteMode);
+            if (mode == ExecutionMode.MOCK) {
+                mockApiService.registerProcess(process);
+            }
+            ExecutionRun run = new ExecutionRun(
+                mode,
+                selectRestTemplate(mode),
+                selectBaseUrl(mode),
+                generateTestData,
+                responseCache.isEnabledFor(process),
+                cassette,
+                new SplittableRandom(seed)
+            );
 
             for (ProcessStep step : process.getSteps()) {
-                StepExecutionResult result = executeStep(
-                    step,
-                    restTemplate,
-                    apiBaseUrl,
-                    executionContext,
-                    generateTestData
-                );
+                StepExecutionResult result = executeStep(step, run, executionContext);
 
                 result.setTestExecution(execution);
+                payloadStore.store(result);
                 result = stepResultRepository.save(result);
                 execution.getStepResults().add(result);
+                rollupService.record(process.getId(), result);
 
                 if (result.getStatus() != StepStatus.SUCCESS) {
                     log.warn("Step {} failed, stopping execution", step.getStepName());
@@ -113,17 +158,19 @@ public class TestOrchestrator {
             execution.setStatus(ExecutionStatus.FAILED);
             execution.setErrorSummary("Execution failed: " + e.getMessage());
             execution.setCompletedAt(LocalDateTime.now());
+        } finally {
+            cassetteService.close(cassette);
         }
 
-        return executionRepository.save(execution);
+        execution = executionRepository.save(execution);
+        executionRollupService.record(process.getId(), execution.getStartedAt(), ExecutionStatus.RUNNING, execution.getStatus());
+        return execution;
     }
 
     private StepExecutionResult executeStep(
         ProcessStep step,
-        RestTemplate restTemplate,
-        String apiBaseUrl,
-        Map<String, Object> context,
-        boolean generateTestData
+        ExecutionRun run,
+        ExecutionContext context
     ) {
         log.info("Executing step: {} - {} {}", 
             step.getStepName(), step.getHttpMethod(), step.getApiEndpoint());
@@ -139,11 +186,12 @@ public class TestOrchestrator {
 
         try {
             if (isOAuth2Endpoint(step)) {
-                return handleOAuth2Authentication(step, context, startTime);
+                return handleOAuth2Authentication(step, run, startTime);
             }
 
             // --- ОБНОВЛЕННЫЙ БЛОК ГЕНЕРАЦИИ ДАННЫХ ---
-            ApiEndpointInfo endpointInfo = parseEndpointInfo(step);
+            SplittableRandom stepRandom = run.random().split();
+            ApiEndpointInfo endpointInfo = openApiParser.endpointInfoFor(step);
 
             String originalEndpoint = step.getApiEndpoint();
             String mappedEndpoint = endpointMappingService.mapEndpoint(originalEndpoint);
@@ -155,16 +203,17 @@ public class TestOrchestrator {
             boolean isRedemption = mappedEndpoint.contains("redemption") && "POST".equals(step.getHttpMethod());
 
             log.info(">>> Step: {}, isRedemption: {}, generateTestData: {}", 
-                step.getStepName(), isRedemption, generateTestData);
+                step.getStepName(), isRedemption, run.generateTestData());
 
             Map<String, Object> requestData = new HashMap<>();
+            Map<String, Object> stepContext = context.select(requestedKeys(endpointInfo, step));
 
             // CRITICAL: Always generate for redemption POST
             if (isRedemption) {
                 log.info(">>> Generating redemption data (forced)");
                 
                 Map<String, Object> innerData = new HashMap<>();
-                innerData.put("redemptionReferenceNumber", UUID.randomUUID().toString());
+                innerData.put("redemptionReferenceNumber", FallbackDataGenerator.uuid(stepRandom));
                 innerData.put("redemptionAmount", 50.0);
                 innerData.put("valuePerPoint", 0.01);
                 innerData.put("programId", "A7DV56B");
@@ -174,25 +223,26 @@ public class TestOrchestrator {
                 
                 log.info(">>> Generated redemption body: {}", requestData);
                 
-            } else if (generateTestData) {
+            } else if (run.generateTestData() && !run.isReplaying()) {
+                // A replayed step sends the recorded body, so nothing is generated (or topped up) for it
                 log.info(">>> Calling AI generator for non-redemption request");
-                Map<String, Object> generatedData = aiTestDataGenerator.generateTestData(endpointInfo, context);
+                Map<String, Object> generatedData = pregenerationService.nextTestData(endpointInfo, stepContext, stepRandom);
                 if (generatedData != null && !generatedData.isEmpty()) {
                     requestData.putAll(generatedData);
                     log.info("Added generated data with keys: {}", generatedData.keySet());
                 }
             }
 
-            // Only add context for NON-redemption requests
-            if (context != null && !isRedemption) {
-                requestData.putAll(context);
-                log.debug("Added context data");
+            // Only add context for NON-redemption requests, and only the values the step asks for
+            if (!isRedemption) {
+                requestData.putAll(stepContext);
+                log.debug("Added context data with keys: {}", stepContext.keySet());
             }
 
-            String url = buildUrl(apiBaseUrl, mappedEndpoint, requestData);
+            String url = buildUrl(run.apiBaseUrl(), mappedEndpoint, requestData, context, stepRandom);
             // --- КОНЕЦ ОБНОВЛЕННОГО БЛОКА ГЕНЕРАЦИИ ДАННЫХ ---
 
-            HttpHeaders headers = oauth2Service.createAuthHeaders();
+            HttpHeaders headers = run.isOffline() ? new HttpHeaders() : oauth2Service.createAuthHeaders();
 
             // Add required headers for Rewards Pay API
             if (mappedEndpoint.contains("/api/rb/rewardsPay")) {
@@ -221,12 +271,25 @@ public class TestOrchestrator {
 
             log.debug("Sending {} request to {} with Authorization: Bearer ***", step.getHttpMethod(), url);
 
-            ResponseEntity<String> response = executeHttpRequest(
-                restTemplate,
-                url,
-                HttpMethod.valueOf(step.getHttpMethod()),
-                request
-            );
+            HttpMethod method = HttpMethod.valueOf(step.getHttpMethod());
+            ResponseEntity<String> response;
+            try {
+                if (run.isReplaying()) {
+                    response = run.cassette().replay(step);
+                } else if (run.responseCacheEnabled() && method == HttpMethod.GET) {
+                    response = responseCache.exchange(run.mode(), url, request,
+                        cacheableRequest -> executeHttpRequest(run.restTemplate(), url, method, cacheableRequest));
+                } else {
+                    response = executeHttpRequest(run.restTemplate(), url, method, request);
+                }
+            } catch (HttpClientErrorException | HttpServerErrorException e) {
+                recordInteraction(run, step, url, requestBody, e.getStatusCode().value(),
+                    e.getResponseHeaders(), e.getResponseBodyAsString());
+                throw e;
+            }
+
+            recordInteraction(run, step, url, requestBody, response.getStatusCode().value(),
+                response.getHeaders(), response.getBody());
 
             result.setHttpStatusCode(response.getStatusCode().value());
             result.setResponsePayload(response.getBody());
@@ -274,7 +337,7 @@ public class TestOrchestrator {
 
     private StepExecutionResult handleOAuth2Authentication(
         ProcessStep step,
-        Map<String, Object> context,
+        ExecutionRun run,
         long startTime
     ) {
         log.info("Handling OAuth2 authentication step");
@@ -287,7 +350,16 @@ public class TestOrchestrator {
             .build();
 
         try {
-            String accessToken = oauth2Service.getAccessToken();
+            if (run.isReplaying()) {
+                RecordedInteraction recorded = run.cassette().find(step);
+                result.setRequestPayload(recorded.getRequestBody());
+                result.setResponsePayload(recorded.getResponseBody());
+                result.setHttpStatusCode(recorded.getStatusCode());
+                result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
+                return result;
+            }
+
+            String accessToken = run.mode() == ExecutionMode.MOCK ? "mock-access-token" : oauth2Service.getAccessToken();
             
             Map<String, Object> requestData = new HashMap<>();
             requestData.put("grant_type", "client_credentials");
@@ -302,6 +374,9 @@ public class TestOrchestrator {
             result.setRequestPayload(objectMapper.writeValueAsString(requestData));
             result.setResponsePayload(objectMapper.writeValueAsString(responseData));
             result.setHttpStatusCode(200);
+
+            recordInteraction(run, step, "oauth2", result.getRequestPayload(), 200,
+                null, result.getResponsePayload());
             
             log.info("OAuth2 authentication successful, token cached in OAuth2Service");
             
@@ -325,132 +400,151 @@ public class TestOrchestrator {
         return restTemplate.exchange(url, method, request, String.class);
     }
 
+    private void recordInteraction(
+        ExecutionRun run,
+        ProcessStep step,
+        String url,
+        String requestBody,
+        int statusCode,
+        HttpHeaders responseHeaders,
+        String responseBody
+    ) {
+        if (run.cassette() == null) {
+            return;
+        }
+        String contentType = responseHeaders != null && responseHeaders.getContentType() != null
+            ? responseHeaders.getContentType().toString()
+            : null;
+        run.cassette().record(step, step.getHttpMethod(), url, requestBody, statusCode, contentType, responseBody);
+    }
+
+    /**
+     * Context keys a step's request can use: the properties and required fields of its
+     * request schema and the targets of its data mapping. Path variables are resolved
+     * from the context separately, in {@link #buildUrl}.
+     */
+    private Set<String> requestedKeys(ApiEndpointInfo endpointInfo, ProcessStep step) {
+        Set<String> keys = new LinkedHashSet<>();
+        Map<String, Object> schema = endpointInfo.getRequestSchema();
+        if (schema != null && schema.get("properties") instanceof Map<?, ?> properties) {
+            properties.keySet().forEach(name -> keys.add(String.valueOf(name)));
+        }
+        if (endpointInfo.getRequiredFields() != null) {
+            keys.addAll(endpointInfo.getRequiredFields());
+        }
+        keys.addAll(dataMappingService.targets(step));
+        return keys;
+    }
+
     private void extractContextData(
         StepExecutionResult result,
-        Map<String, Object> context
+        ExecutionContext context
     ) {
         if (result.getResponsePayload() == null || result.getResponsePayload().isBlank()) {
             return;
         }
 
-        try {
-            Map<String, Object> responseData = objectMapper.readValue(
-                result.getResponsePayload(),
-                Map.class
-            );
-
-            extractField(responseData, "id", context);
-            extractField(responseData, "accountId", context);
-            extractField(responseData, "orderId", context);
-            extractField(responseData, "transactionId", context);
-            extractField(responseData, "externalAccountId", context);
-            extractField(responseData, "externalAccountID", context);
-
-            String stepPrefix = result.getProcessStep().getStepId() + "_";
-            responseData.forEach((key, value) -> 
-                context.put(stepPrefix + key, value)
-            );
+        ProcessStep step = result.getProcessStep();
+        String stepId = step.getStepId();
+        context.putStepResponse(stepId, result.getResponsePayload());
 
-        } catch (Exception e) {
-            log.warn("Failed to extract context from response", e);
-        }
-    }
-
-    private void extractField(Map<String, Object> data, String field, Map<String, Object> context) {
-        if (data != null && data.containsKey(field)) {
-            context.put(field, data.get(field));
-            log.debug("Extracted field '{}' = {}", field, data.get(field));
+        if (dataMappingService.hasMappings(step)) {
+            dataMappingService.apply(step, context);
+            return;
         }
-    }
 
-    private ApiEndpointInfo parseEndpointInfo(ProcessStep step) {
-        try {
-            if (step.getOpenApiSpec() != null && !step.getOpenApiSpec().isBlank()) {
-                return objectMapper.readValue(step.getOpenApiSpec(), ApiEndpointInfo.class);
+        for (String field : PROPAGATED_FIELDS) {
+            Object value = context.resolve(stepId, field);
+            if (value != null) {
+                context.put(field, value);
+                log.debug("Extracted field '{}' = {}", field, value);
             }
-        } catch (Exception e) {
-            log.warn("Failed to parse endpoint info from step", e);
         }
-
-        return ApiEndpointInfo.builder()
-            .path(step.getApiEndpoint() != null ? step.getApiEndpoint() : "/unknown")
-            .method(step.getHttpMethod() != null ? step.getHttpMethod() : "GET")
-            .operationId(step.getStepId() != null ? step.getStepId() : "unknown")
-            .summary(step.getStepName() != null ? step.getStepName() : "")
-            .description("")
-            .requestSchema(new HashMap<>())
-            .responseSchema(new HashMap<>())
-            .requiredFields(new ArrayList<>())
-            .build();
     }
 
     private String buildUrl(
         String baseUrl,
         String path,
-        Map<String, Object> data
+        Map<String, Object> data,
+        ExecutionContext context,
+        SplittableRandom random
     ) {
         if (path == null || path.isEmpty()) {
             return baseUrl;
         }
-        String url = baseUrl + path;
-        // Replace path variables with data from context
-        if (data != null && !data.isEmpty()) {
-            for (Map.Entry<String, Object> entry : data.entrySet()) {
-                String placeholder = "{" + entry.getKey() + "}";
-                if (url.contains(placeholder)) {
-                    url = url.replace(placeholder, String.valueOf(entry.getValue()));
-                    log.debug("Replaced {} with {}", placeholder, entry.getValue());
-                }
+
+        StringBuilder url = new StringBuilder(baseUrl);
+        Matcher matcher = PATH_VARIABLE.matcher(path);
+        int last = 0;
+
+        // Resolve only the variables the path references: request data first, then context
+        while (matcher.find()) {
+            String varName = matcher.group(1);
+            url.append(path, last, matcher.start());
+            last = matcher.end();
+
+            Object value = data.get(varName);
+            if (value == null && context != null) {
+                value = context.get(varName);
             }
-        }
-        
-        // If there are still unresolved path variables, generate UUIDs for them
-        Pattern pattern = Pattern.compile("\\{([^}]+)\\}");
-        Matcher matcher = pattern.matcher(url);
-        
-        String tempUrl = url;
-        List<String> toReplace = new ArrayList<>();
-        
-        // Find all unresolved variables first
-        Matcher findMatcher = pattern.matcher(tempUrl);
-        while (findMatcher.find()) {
-            toReplace.add(findMatcher.group(1));
-        }
-        
-        for (String varName : toReplace) {
-            if (tempUrl.contains("{" + varName + "}")) {
-                String replacement;
-                
-                // Generate appropriate value based on variable name
-                if (varName.contains("account") || varName.contains("Account")) {
-                    replacement = UUID.randomUUID().toString();
-                    log.debug("Auto-generated UUID for {}: {}", varName, replacement);
-                } else if (varName.contains("id") || varName.contains("ID")) {
-                    replacement = UUID.randomUUID().toString();
-                    log.debug("Auto-generated UUID for {}: {}", varName, replacement);
-                } else {
-                    replacement = "auto-" + UUID.randomUUID().toString().substring(0, 8);
-                    log.warn("Unknown path variable {}, using: {}", varName, replacement);
-                }
-                
-                tempUrl = tempUrl.replace("{" + varName + "}", replacement);
-                
-                // Also store in context for potential future use
-                if (data != null) {
-                    data.put(varName, replacement);
-                }
+
+            if (value != null) {
+                url.append(value);
+                log.debug("Replaced {{{}}} with {}", varName, value);
+                continue;
+            }
+
+            // Unresolved path variable: generate a value and keep it for the request body
+            String replacement;
+            if (varName.contains("account") || varName.contains("Account")
+                || varName.contains("id") || varName.contains("ID")) {
+                replacement = FallbackDataGenerator.uuid(random);
+                log.debug("Auto-generated UUID for {}: {}", varName, replacement);
+            } else {
+                replacement = "auto-" + FallbackDataGenerator.uuid(random).substring(0, 8);
+                log.warn("Unknown path variable {}, using: {}", varName, replacement);
             }
+
+            url.append(replacement);
+            data.put(varName, replacement);
         }
-        
-        return tempUrl;
+
+        url.append(path, last, path.length());
+        return url.toString();
     }
 
     private RestTemplate selectRestTemplate(ExecutionMode mode) {
-        return mode == ExecutionMode.GOST ? gostRestTemplate : standardRestTemplate;
+        return switch (mode) {
+            case GOST -> gostRestTemplate;
+            case MOCK -> mockRestTemplate;
+            default -> standardRestTemplate;
+        };
     }
 
     private String selectBaseUrl(ExecutionMode mode) {
-        return mode == ExecutionMode.GOST ? gostBaseUrl : baseUrl;
+        return switch (mode) {
+            case GOST -> gostBaseUrl;
+            case MOCK -> mockBaseUrl;
+            default -> baseUrl;
+        };
+    }
+
+    private record ExecutionRun(
+        ExecutionMode mode,
+        RestTemplate restTemplate,
+        String apiBaseUrl,
+        boolean generateTestData,
+        boolean responseCacheEnabled,
+        TrafficCassetteService.CassetteSession cassette,
+        SplittableRandom random
+    ) {
+        boolean isReplaying() {
+            return cassette != null && cassette.isReplaying();
+        }
+
+        boolean isOffline() {
+            return isReplaying() || mode == ExecutionMode.MOCK;
+        }
     }
 
     private String generateErrorSummary(TestExecution execution) {
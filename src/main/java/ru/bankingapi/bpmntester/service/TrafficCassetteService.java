@@ -0,0 +1,211 @@
+package ru.bankingapi.bpmntester.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import ru.bankingapi.bpmntester.domain.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Records step request/response pairs into per-process cassette files and serves
+ * them back in replay mode, so executions can run without touching the sandbox.
+ * <p>
+ * A cassette is a JSON Lines file with one {@link RecordedInteraction} per step.
+ * On first replay it is loaded into an in-memory index keyed by step id; at most
+ * {@code test-execution.cassette.max-loaded} indexes are kept, least recently
+ * replayed first out.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TrafficCassetteService {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${test-execution.cassette.dir:cassettes}")
+    private String cassetteDir;
+
+    @Value("${test-execution.cassette.max-loaded:16}")
+    private int maxLoaded;
+
+    private final LinkedHashMap<Long, Map<String, RecordedInteraction>> loadedCassettes =
+        new LinkedHashMap<>(16, 0.75f, true);
+
+    public CassetteSession open(BusinessProcess process, CassetteMode mode) {
+        if (mode == null || mode == CassetteMode.OFF) {
+            return null;
+        }
+
+        if (mode == CassetteMode.REPLAY) {
+            Map<String, RecordedInteraction> index = loaded(process.getId());
+            if (index == null) {
+                index = loadCassette(process.getId());
+                remember(process.getId(), index);
+            }
+            log.info("Replaying {} recorded interactions for process {}", index.size(), process.getId());
+            return new CassetteSession(process.getId(), mode, index);
+        }
+
+        return new CassetteSession(process.getId(), mode, new LinkedHashMap<>());
+    }
+
+    public void close(CassetteSession session) {
+        if (session == null || !session.isRecording()) {
+            return;
+        }
+
+        Path file = cassettePath(session.processId);
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (RecordedInteraction interaction : session.interactions.values()) {
+                    writer.write(objectMapper.writeValueAsString(interaction));
+                    writer.newLine();
+                }
+            }
+
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            remember(session.processId, Collections.unmodifiableMap(session.interactions));
+
+            log.info("Recorded {} interactions to {}", session.interactions.size(), file);
+        } catch (IOException e) {
+            log.error("Failed to write cassette {}", file, e);
+        }
+    }
+
+    public boolean hasCassette(Long processId) {
+        return loaded(processId) != null || Files.exists(cassettePath(processId));
+    }
+
+    private Map<String, RecordedInteraction> loaded(Long processId) {
+        synchronized (loadedCassettes) {
+            return loadedCassettes.get(processId);
+        }
+    }
+
+    private void remember(Long processId, Map<String, RecordedInteraction> index) {
+        synchronized (loadedCassettes) {
+            loadedCassettes.put(processId, index);
+            Iterator<Long> eldest = loadedCassettes.keySet().iterator();
+            while (loadedCassettes.size() > Math.max(1, maxLoaded) && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private Map<String, RecordedInteraction> loadCassette(Long processId) {
+        Path file = cassettePath(processId);
+        if (!Files.exists(file)) {
+            throw new IllegalStateException("No cassette recorded for process " + processId);
+        }
+
+        Map<String, RecordedInteraction> index = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                RecordedInteraction interaction = objectMapper.readValue(line, RecordedInteraction.class);
+                index.put(interaction.getStepId(), interaction);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read cassette " + file + ": " + e.getMessage(), e);
+        }
+
+        log.info("Loaded cassette {} with {} interactions", file, index.size());
+        return Collections.unmodifiableMap(index);
+    }
+
+    private Path cassettePath(Long processId) {
+        return Paths.get(cassetteDir, "process-" + processId + ".jsonl");
+    }
+
+    public static class CassetteSession {
+
+        private final Long processId;
+        private final CassetteMode mode;
+        private final Map<String, RecordedInteraction> interactions;
+
+        private CassetteSession(Long processId, CassetteMode mode, Map<String, RecordedInteraction> interactions) {
+            this.processId = processId;
+            this.mode = mode;
+            this.interactions = interactions;
+        }
+
+        public boolean isRecording() {
+            return mode == CassetteMode.RECORD;
+        }
+
+        public boolean isReplaying() {
+            return mode == CassetteMode.REPLAY;
+        }
+
+        public void record(ProcessStep step, String method, String url, String requestBody,
+                           int statusCode, String contentType, String responseBody) {
+            if (!isRecording()) {
+                return;
+            }
+            interactions.put(step.getStepId(), RecordedInteraction.builder()
+                .stepId(step.getStepId())
+                .method(method)
+                .url(url)
+                .requestBody(requestBody)
+                .statusCode(statusCode)
+                .contentType(contentType)
+                .responseBody(responseBody)
+                .build());
+        }
+
+        public RecordedInteraction find(ProcessStep step) {
+            RecordedInteraction interaction = interactions.get(step.getStepId());
+            if (interaction == null) {
+                throw new IllegalStateException("No recorded interaction for step " + step.getStepId());
+            }
+            return interaction;
+        }
+
+        /**
+         * Serve the recorded response the same way RestTemplate would:
+         * 4xx/5xx statuses surface as HTTP exceptions.
+         */
+        public ResponseEntity<String> replay(ProcessStep step) {
+            RecordedInteraction interaction = find(step);
+            HttpStatusCode status = HttpStatusCode.valueOf(interaction.getStatusCode());
+
+            HttpHeaders headers = new HttpHeaders();
+            if (interaction.getContentType() != null) {
+                headers.set(HttpHeaders.CONTENT_TYPE, interaction.getContentType());
+            }
+
+            byte[] body = interaction.getResponseBody() != null
+                ? interaction.getResponseBody().getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+
+            if (status.is4xxClientError()) {
+                throw HttpClientErrorException.create(status, "Replayed", headers, body, StandardCharsets.UTF_8);
+            }
+            if (status.is5xxServerError()) {
+                throw HttpServerErrorException.create(status, "Replayed", headers, body, StandardCharsets.UTF_8);
+            }
+
+            return new ResponseEntity<>(interaction.getResponseBody(), headers, status);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+-- Schema of the embedded (file-backed H2) profile; keep in sync with the JPA entities.
+
+create sequence business_process_seq start with 1 increment by 50;
+create sequence process_step_seq start with 1 increment by 50;
+create sequence payload_blob_seq start with 1 increment by 50;
+
+create table business_processes (
+    id                     bigint not null,
+    name                   varchar(255),
+    description            TEXT,
+    bpmn_xml               TEXT,
+    response_cache_enabled boolean,
+    created_at             timestamp(6),
+    updated_at             timestamp(6),
+    primary key (id)
+);
+
+create table process_steps (
+    id                  bigint not null,
+    business_process_id bigint,
+    step_id             varchar(255),
+    step_name           varchar(255),
+    step_order          integer,
+    step_type           enum ('EVENT','GATEWAY','RECEIVE_TASK','SCRIPT_TASK','SEND_TASK','SERVICE_TASK','USER_TASK'),
+    api_endpoint        varchar(255),
+    http_method         varchar(255),
+    open_api_spec       TEXT,
+    data_mapping        TEXT,
+    primary key (id),
+    constraint fk_process_step_process foreign key (business_process_id) references business_processes
+);
+
+create table test_executions (
+    id                  bigint generated by default as identity,
+    business_process_id bigint,
+    mode                enum ('GOST','MOCK','STANDARD'),
+    status              enum ('CANCELLED','COMPLETED','FAILED','PENDING','RUNNING'),
+    started_at          timestamp(6),
+    completed_at        timestamp(6),
+    ai_analysis         TEXT,
+    error_summary       TEXT,
+    rehydrated_at       timestamp(6),
+    primary key (id),
+    constraint fk_test_execution_process foreign key (business_process_id) references business_processes
+);
+
+create table payload_blobs (
+    id             bigint not null,
+    sha256         varchar(64) not null unique,
+    original_bytes bigint not null,
+    truncated      boolean not null,
+    compressed     boolean not null,
+    data           blob not null,
+    created_at     timestamp(6),
+    primary key (id)
+);
+
+create table step_execution_results (
+    id                  bigint generated by default as identity,
+    test_execution_id   bigint,
+    process_step_id     bigint,
+    execution_order     integer,
+    status              enum ('FAILED','SKIPPED','SUCCESS','TIMEOUT','VALIDATION_ERROR'),
+    request_payload_id  bigint,
+    response_payload_id bigint,
+    http_status_code    integer,
+    error_message       TEXT,
+    validation_errors   TEXT,
+    execution_time_ms   bigint,
+    executed_at         timestamp(6),
+    primary key (id),
+    constraint fk_step_result_execution foreign key (test_execution_id) references test_executions,
+    constraint fk_step_result_step foreign key (process_step_id) references process_steps,
+    constraint fk_step_result_request foreign key (request_payload_id) references payload_blobs,
+    constraint fk_step_result_response foreign key (response_payload_id) references payload_blobs
+);
+
+create table step_metric_rollups (
+    id              bigint generated by default as identity,
+    process_id      bigint not null,
+    process_step_id bigint not null,
+    minute_start    timestamp(6) not null,
+    latency_bucket  integer not null,
+    error_class     varchar(32) not null,
+    sample_count    bigint not null,
+    error_count     bigint not null,
+    latency_sum_ms  bigint not null,
+    latency_max_ms  bigint not null,
+    primary key (id),
+    constraint uk_step_metric_rollup unique (process_id, process_step_id, minute_start, latency_bucket, error_class)
+);
+
+create index idx_process_step_process on process_steps (business_process_id, step_order);
+create index idx_test_execution_process_started on test_executions (business_process_id, started_at);
+create index idx_test_execution_started on test_executions (started_at);
+create index idx_test_execution_status on test_executions (status, started_at);
+create index idx_step_result_execution on step_execution_results (test_execution_id, execution_order);
+create index idx_step_result_executed_at on step_execution_results (executed_at);
+create index idx_step_metric_rollup_process_minute on step_metric_rollups (process_id, minute_start);
@@ -0,0 +1,2 @@
+-- Seed of the fallback data of an execution (TestExecution.dataSeed).
+alter table test_executions add column data_seed bigint;
@@ -0,0 +1,2 @@
+-- Spec operations stored with a process for the mock server (BusinessProcess.mockEndpoints).
+alter table business_processes add column mock_endpoints TEXT;
@@ -0,0 +1,2 @@
+-- Last reuse of a payload blob; retention purges unreferenced blobs by it (PayloadBlob.lastUsedAt).
+alter table payload_blobs add column last_used_at timestamp(6);
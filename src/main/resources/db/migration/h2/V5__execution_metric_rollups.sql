@@ -0,0 +1,16 @@
+-- Per-minute execution counts by status (ExecutionMetricRollup), seeded from the executions still stored.
+create table execution_metric_rollups (
+    id              bigint generated by default as identity,
+    process_id      bigint not null,
+    minute_start    timestamp(6) not null,
+    status          enum ('CANCELLED','COMPLETED','FAILED','PENDING','RUNNING') not null,
+    execution_count bigint not null,
+    primary key (id),
+    constraint uk_execution_metric_rollup unique (process_id, minute_start, status)
+);
+
+insert into execution_metric_rollups (process_id, minute_start, status, execution_count)
+select business_process_id, date_trunc('MINUTE', started_at), status, count(*)
+from test_executions
+where business_process_id is not null and started_at is not null and status is not null
+group by business_process_id, date_trunc('MINUTE', started_at), status;
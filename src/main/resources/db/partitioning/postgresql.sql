@@ -0,0 +1,36 @@
+-- Monthly range partitioning of step results on PostgreSQL (12+).
+--
+-- Apply once to an empty schema instead of letting Hibernate create
+-- step_execution_results, then run with:
+--   spring.jpa.hibernate.ddl-auto: validate
+--   retention.partitioned: true
+-- RetentionService creates partitions for the coming months and drops
+-- partitions that are entirely older than the retention cutoff, unless they
+-- still hold results of executions that are not archived (e.g. rehydrated
+-- runs keep their original executed_at and land in old partitions).
+--
+-- The primary key has to include the partition key, and there is no foreign
+-- key to test_executions: archived executions are deleted before their
+-- results' partition is dropped.
+
+CREATE TABLE step_execution_results (
+    id                  BIGSERIAL    NOT NULL,
+    test_execution_id   BIGINT,
+    process_step_id     BIGINT       REFERENCES process_steps (id),
+    execution_order     INTEGER,
+    status              VARCHAR(255) CHECK (status IN ('SUCCESS', 'FAILED', 'SKIPPED', 'TIMEOUT', 'VALIDATION_ERROR')),
+    request_payload_id  BIGINT       REFERENCES payload_blobs (id),
+    response_payload_id BIGINT       REFERENCES payload_blobs (id),
+    http_status_code    INTEGER,
+    error_message       TEXT,
+    validation_errors   TEXT,
+    execution_time_ms   BIGINT,
+    executed_at         TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, executed_at)
+) PARTITION BY RANGE (executed_at);
+
+CREATE INDEX idx_step_result_execution ON step_execution_results (test_execution_id, execution_order);
+CREATE INDEX idx_step_result_executed_at ON step_execution_results (executed_at);
+
+-- Rows outside every monthly partition, e.g. rehydrated results from dropped months
+CREATE TABLE step_execution_results_default PARTITION OF step_execution_results DEFAULT;
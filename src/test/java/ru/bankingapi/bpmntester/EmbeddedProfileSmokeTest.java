@@ -0,0 +1,151 @@
+package ru.bankingapi.bpmntester;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.bankingapi.bpmntester.domain.*;
+import ru.bankingapi.bpmntester.repository.BusinessProcessRepository;
+import ru.bankingapi.bpmntester.repository.ProcessStepRepository;
+import ru.bankingapi.bpmntester.repository.StepExecutionResultRepository;
+import ru.bankingapi.bpmntester.repository.TestExecutionRepository;
+import ru.bankingapi.bpmntester.service.PayloadStore;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the application with the {@code embedded} profile on a fresh H2 file: the
+ * Flyway migrations must apply and validate against the entities, an execution with
+ * stored payloads must survive a write and read back, and the connection pool must be
+ * sized by {@code DataSourcePoolConfig}.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = {
+        "ai.enabled=false",
+        "test-execution.max-concurrent=3",
+        "process-import.parallelism=2",
+        "persistence.pool-reserve=1"
+    }
+)
+@ActiveProfiles("embedded")
+class EmbeddedProfileSmokeTest {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void embeddedDatabase(DynamicPropertyRegistry registry) {
+        registry.add("EMBEDDED_DB_DIR", () -> dataDir.toString());
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BusinessProcessRepository processRepository;
+
+    @Autowired
+    private ProcessStepRepository stepRepository;
+
+    @Autowired
+    private TestExecutionRepository executionRepository;
+
+    @Autowired
+    private StepExecutionResultRepository stepResultRepository;
+
+    @Autowired
+    private PayloadStore payloadStore;
+
+    @Test
+    void migrationsAreAppliedAndValid() {
+        flyway.validate();
+
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.info().applied()).isNotEmpty();
+    }
+
+    @Test
+    void executionRoundTrip() {
+        Long executionId = transactionTemplate.execute(status -> {
+            BusinessProcess process = processRepository.save(BusinessProcess.builder()
+                .name("Smoke process")
+                .steps(new ArrayList<>())
+                .createdAt(LocalDateTime.now())
+                .build());
+            ProcessStep step = stepRepository.save(ProcessStep.builder()
+                .businessProcess(process)
+                .stepId("Task_1")
+                .stepName("Create account")
+                .stepOrder(1)
+                .stepType(StepType.SERVICE_TASK)
+                .apiEndpoint("/accounts")
+                .httpMethod("POST")
+                .build());
+            TestExecution execution = executionRepository.save(TestExecution.builder()
+                .businessProcess(process)
+                .mode(ExecutionMode.MOCK)
+                .status(ExecutionStatus.COMPLETED)
+                .startedAt(LocalDateTime.now())
+                .completedAt(LocalDateTime.now())
+                .dataSeed(42L)
+                .stepResults(new ArrayList<>())
+                .build());
+
+            StepExecutionResult result = StepExecutionResult.builder()
+                .testExecution(execution)
+                .processStep(step)
+                .executionOrder(1)
+                .status(StepStatus.SUCCESS)
+                .requestPayload("{\"name\":\"smoke\"}")
+                .responsePayload("{\"id\":\"" + "x".repeat(1024) + "\"}")
+                .httpStatusCode(201)
+                .executionTimeMs(12L)
+                .executedAt(LocalDateTime.now())
+                .build();
+            payloadStore.store(result);
+            stepResultRepository.save(result);
+            return execution.getId();
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            TestExecution execution = executionRepository.findWithResultsById(executionId).orElseThrow();
+
+            assertThat(execution.getBusinessProcess().getName()).isEqualTo("Smoke process");
+            assertThat(execution.getDataSeed()).isEqualTo(42L);
+            assertThat(execution.getStepResults()).singleElement().satisfies(result -> {
+                assertThat(result.getProcessStep().getStepName()).isEqualTo("Create account");
+                assertThat(result.getRequestPayload()).isEqualTo("{\"name\":\"smoke\"}");
+                assertThat(result.getResponsePayload()).isEqualTo("{\"id\":\"" + "x".repeat(1024) + "\"}");
+                assertThat(result.getResponseBlob().isCompressed()).isTrue();
+            });
+        });
+    }
+
+    @Test
+    void poolIsSizedFromConcurrency() {
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+
+        // 3 executions * 2 + 2 import workers + 1 reserve; minimum idle is executions + reserve
+        assertThat(hikari.getMaximumPoolSize()).isEqualTo(9);
+        assertThat(hikari.getMinimumIdle()).isEqualTo(4);
+        assertThat(hikari.getJdbcUrl()).startsWith("jdbc:h2:file:").contains(dataDir.toString());
+    }
+}
@@ -0,0 +1,164 @@
+package ru.bankingapi.bpmntester;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.bankingapi.bpmntester.domain.*;
+import ru.bankingapi.bpmntester.repository.BusinessProcessRepository;
+import ru.bankingapi.bpmntester.repository.ProcessStepRepository;
+import ru.bankingapi.bpmntester.repository.StepExecutionResultRepository;
+import ru.bankingapi.bpmntester.repository.TestExecutionRepository;
+import ru.bankingapi.bpmntester.service.ExecutionLimiter;
+import ru.bankingapi.bpmntester.service.MockApiService;
+import ru.bankingapi.bpmntester.service.TestOrchestrator;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Write throughput of the {@code embedded} profile: concurrent MOCK executions go
+ * through {@link ExecutionLimiter} the way the execute endpoint runs them, and the
+ * rows written per second are printed. Tagged {@code benchmark}, so it only runs with
+ * {@code mvn test -Pbenchmark}.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = {
+        "ai.enabled=false",
+        "test-execution.max-concurrent=4",
+        "mock-server.latency-ms=0"
+    }
+)
+@ActiveProfiles("embedded")
+@Tag("benchmark")
+class EmbeddedWriteThroughputBenchmarkTest {
+
+    private static final int STEPS = 10;
+    private static final int CLIENTS = 8;
+    private static final int WARMUP_EXECUTIONS = 20;
+    private static final int MEASURED_EXECUTIONS = 200;
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void embeddedDatabase(DynamicPropertyRegistry registry) {
+        registry.add("EMBEDDED_DB_DIR", () -> dataDir.toString());
+    }
+
+    @Autowired
+    private ExecutionLimiter executionLimiter;
+
+    @Autowired
+    private TestOrchestrator testOrchestrator;
+
+    @Autowired
+    private MockApiService mockApiService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BusinessProcessRepository processRepository;
+
+    @Autowired
+    private ProcessStepRepository stepRepository;
+
+    @Autowired
+    private TestExecutionRepository executionRepository;
+
+    @Autowired
+    private StepExecutionResultRepository stepResultRepository;
+
+    @Test
+    void concurrentExecutionsThroughLimiter() throws Exception {
+        Long processId = createProcess();
+
+        runExecutions(processId, WARMUP_EXECUTIONS);
+        long executionsBefore = executionRepository.count();
+        long resultsBefore = stepResultRepository.count();
+
+        long started = System.nanoTime();
+        runExecutions(processId, MEASURED_EXECUTIONS);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long executions = executionRepository.count() - executionsBefore;
+        long results = stepResultRepository.count() - resultsBefore;
+        System.out.printf("Embedded writes: %d executions of %d steps by %d clients in %.2f s: "
+                + "%.0f executions/s, %.0f rows/s%n",
+            executions, STEPS, CLIENTS, seconds, executions / seconds, (executions + results) / seconds);
+
+        assertThat(executions).isEqualTo(MEASURED_EXECUTIONS);
+        assertThat(results).isEqualTo((long) MEASURED_EXECUTIONS * STEPS);
+    }
+
+    private void runExecutions(Long processId, int count) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<ExecutionStatus>> statuses = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                long seed = i;
+                statuses.add(clients.submit(() -> executionLimiter.inTransaction(() -> {
+                    BusinessProcess process = processRepository.findByIdWithSteps(processId).orElseThrow();
+                    return testOrchestrator.executeProcess(process, ExecutionMode.MOCK, new HashMap<>(), true,
+                        CassetteMode.OFF, seed).getStatus();
+                })));
+            }
+            for (Future<ExecutionStatus> status : statuses) {
+                assertThat(status.get()).isEqualTo(ExecutionStatus.COMPLETED);
+            }
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    /**
+     * A process of {@link #STEPS} POST steps, each served by the mock server.
+     */
+    private Long createProcess() {
+        List<ApiEndpointInfo> endpoints = new ArrayList<>();
+        Long processId = transactionTemplate.execute(status -> {
+            BusinessProcess process = processRepository.save(BusinessProcess.builder()
+                .name("Throughput process")
+                .steps(new ArrayList<>())
+                .createdAt(LocalDateTime.now())
+                .build());
+            for (int i = 1; i <= STEPS; i++) {
+                String path = "/accounts/" + i;
+                stepRepository.save(ProcessStep.builder()
+                    .businessProcess(process)
+                    .stepId("Task_" + i)
+                    .stepName("Step " + i)
+                    .stepOrder(i)
+                    .stepType(StepType.SERVICE_TASK)
+                    .apiEndpoint(path)
+                    .httpMethod("POST")
+                    .build());
+                endpoints.add(ApiEndpointInfo.builder()
+                    .path(path)
+                    .method("POST")
+                    .responseSchema(Map.of("type", "object", "properties",
+                        Map.of("id", Map.of("type", "string", "format", "uuid"))))
+                    .build());
+            }
+            return process.getId();
+        });
+        mockApiService.registerEndpoints(endpoints);
+        return processId;
+    }
+}
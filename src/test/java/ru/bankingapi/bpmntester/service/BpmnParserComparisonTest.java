@@ -0,0 +1,148 @@
+package ru.bankingapi.bpmntester.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.bankingapi.bpmntester.domain.BusinessProcess;
+import ru.bankingapi.bpmntester.domain.ProcessStep;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The StAX parser must produce the same steps as the Camunda model parser. The
+ * timing part compares both on a large generated diagram and prints the result; it
+ * is tagged {@code benchmark} and only runs with {@code mvn test -Pbenchmark}.
+ */
+class BpmnParserComparisonTest {
+
+    private static final int LARGE_DIAGRAM_TASKS = 2_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private final BpmnParserService modelParser = new BpmnParserService(new ObjectMapper());
+    private final StreamingBpmnParser streamingParser = new StreamingBpmnParser(modelParser);
+
+    @Test
+    void sampleDiagramGivesSameSteps() throws IOException {
+        String xml = Files.readString(Path.of("01_bonus_payment.bpmn"), StandardCharsets.UTF_8);
+
+        List<List<Object>> expected = describe(modelParser.parseBpmnXml(xml, null));
+
+        assertThat(expected).hasSize(5);
+        assertThat(describe(streamingParser.parseBpmnXml(xml, null))).isEqualTo(expected);
+    }
+
+    @Test
+    void generatedDiagramGivesSameSteps() {
+        String xml = largeDiagram(200);
+
+        List<List<Object>> expected = describe(modelParser.parseBpmnXml(xml, null));
+
+        assertThat(expected).hasSize(200);
+        assertThat(describe(streamingParser.parseBpmnXml(xml, null))).isEqualTo(expected);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void streamingParserOnLargeDiagram() {
+        String xml = largeDiagram(LARGE_DIAGRAM_TASKS);
+
+        double modelMs = averageMillis(xml, text -> modelParser.parseBpmnXml(text, null));
+        double streamingMs = averageMillis(xml, text -> streamingParser.parseBpmnXml(text, null));
+
+        System.out.printf("BPMN parse of %d tasks (%d KiB): model %.1f ms, streaming %.1f ms (%.1fx)%n",
+            LARGE_DIAGRAM_TASKS, xml.length() / 1024, modelMs, streamingMs, modelMs / streamingMs);
+        assertThat(describe(streamingParser.parseBpmnXml(xml, null)))
+            .isEqualTo(describe(modelParser.parseBpmnXml(xml, null)));
+    }
+
+    private static double averageMillis(String xml, Function<String, BusinessProcess> parser) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            parser.apply(xml);
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            parser.apply(xml);
+        }
+        return (System.nanoTime() - started) / 1e6 / MEASURED_ROUNDS;
+    }
+
+    /**
+     * The persisted fields of each step, in order; entity equality would recurse
+     * through the process back-reference.
+     */
+    private static List<List<Object>> describe(BusinessProcess process) {
+        return process.getSteps().stream()
+            .map(step -> Arrays.<Object>asList(
+                step.getStepId(),
+                step.getStepName(),
+                step.getStepOrder(),
+                step.getStepType(),
+                step.getApiEndpoint(),
+                step.getHttpMethod(),
+                step.getOpenApiSpec(),
+                step.getDataMapping()
+            ))
+            .toList();
+    }
+
+    /**
+     * A linear process whose elements are written in reverse flow order. Every third
+     * step is a service task configured through Camunda properties, the others are
+     * plain tasks described by their name or documentation.
+     */
+    private static String largeDiagram(int tasks) {
+        StringBuilder xml = new StringBuilder("""
+            <?xml version="1.0" encoding="UTF-8"?>
+            <bpmn:definitions xmlns:bpmn="http://www.omg.org/spec/BPMN/20100524/MODEL"
+                              xmlns:camunda="http://camunda.org/schema/1.0/bpmn"
+                              id="Definitions_large" targetNamespace="http://bpmn.io/schema/bpmn">
+              <bpmn:process id="Process_large" name="Large process" isExecutable="false">
+                <bpmn:documentation>Generated diagram</bpmn:documentation>
+            """);
+        for (int i = tasks; i >= 1; i--) {
+            String incoming = "Flow_" + (i - 1);
+            String outgoing = "Flow_" + i;
+            if (i % 3 == 0) {
+                xml.append("    <bpmn:serviceTask id=\"Task_").append(i).append("\" name=\"Call service ").append(i).append("\">\n")
+                    .append("      <bpmn:extensionElements><camunda:properties>\n")
+                    .append("        <camunda:property name=\"api.endpoint\" value=\"/services/").append(i).append("\"/>\n")
+                    .append("        <camunda:property name=\"api.method\" value=\"POST\"/>\n")
+                    .append("        <camunda:property name=\"map.accountId\" value=\"$.data.id\"/>\n")
+                    .append("      </camunda:properties></bpmn:extensionElements>\n")
+                    .append("      <bpmn:incoming>").append(incoming).append("</bpmn:incoming>\n")
+                    .append("      <bpmn:outgoing>").append(outgoing).append("</bpmn:outgoing>\n")
+                    .append("    </bpmn:serviceTask>\n");
+            } else if (i % 3 == 1) {
+                xml.append("    <bpmn:task id=\"Task_").append(i).append("\" name=\"Step ").append(i)
+                    .append(": GET /accounts/").append(i).append("\">\n")
+                    .append("      <bpmn:incoming>").append(incoming).append("</bpmn:incoming>\n")
+                    .append("      <bpmn:outgoing>").append(outgoing).append("</bpmn:outgoing>\n")
+                    .append("    </bpmn:task>\n");
+            } else {
+                xml.append("    <bpmn:task id=\"Task_").append(i).append("\" name=\"Documented step ").append(i).append("\">\n")
+                    .append("      <bpmn:documentation>Checks the payment\nPUT /payments/").append(i).append("</bpmn:documentation>\n")
+                    .append("      <bpmn:incoming>").append(incoming).append("</bpmn:incoming>\n")
+                    .append("      <bpmn:outgoing>").append(outgoing).append("</bpmn:outgoing>\n")
+                    .append("    </bpmn:task>\n");
+            }
+        }
+        xml.append("    <bpmn:startEvent id=\"Start\"><bpmn:outgoing>Flow_0</bpmn:outgoing></bpmn:startEvent>\n");
+        xml.append("    <bpmn:endEvent id=\"End\"><bpmn:incoming>Flow_").append(tasks).append("</bpmn:incoming></bpmn:endEvent>\n");
+        for (int i = 0; i <= tasks; i++) {
+            String source = i == 0 ? "Start" : "Task_" + i;
+            String target = i == tasks ? "End" : "Task_" + (i + 1);
+            xml.append("    <bpmn:sequenceFlow id=\"Flow_").append(i).append("\" sourceRef=\"").append(source)
+                .append("\" targetRef=\"").append(target).append("\"/>\n");
+        }
+        return xml.append("  </bpmn:process>\n</bpmn:definitions>\n").toString();
+    }
+}
@@ -0,0 +1,183 @@
+package ru.bankingapi.bpmntester.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.bankingapi.bpmntester.domain.*;
+import ru.bankingapi.bpmntester.repository.StepExecutionResultRepository;
+import ru.bankingapi.bpmntester.repository.TestExecutionRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The execution view and the report exports must issue the same number of SQL
+ * statements however many steps an execution has, and exports must not keep the
+ * streamed results or their payload blobs in the persistence context.
+ */
+@DataJpaTest(showSql = false, properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ExecutionQueryCountTest {
+
+    private static final int SMALL = 3;
+    private static final int LARGE = 60;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TestExecutionRepository executionRepository;
+
+    @Autowired
+    private StepExecutionResultRepository stepResultRepository;
+
+    private ReportExportService exportService;
+    private Statistics statistics;
+    private int blobs;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ReportExportService(new ObjectMapper(), stepResultRepository, entityManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void executionViewUsesOneStatement() {
+        long small = viewStatements(createExecution(SMALL, ExecutionStatus.COMPLETED));
+        long large = viewStatements(createExecution(LARGE, ExecutionStatus.COMPLETED));
+
+        assertThat(small).isEqualTo(1);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ReportFormat.class)
+    void exportStatementsDoNotGrowWithSteps(ReportFormat format) throws IOException {
+        long small = exportStatements(createExecution(SMALL, ExecutionStatus.FAILED), format);
+        long large = exportStatements(createExecution(LARGE, ExecutionStatus.FAILED), format);
+
+        // Execution with its process, the results, and for HTML the failed results again
+        assertThat(small).isEqualTo(format == ReportFormat.HTML ? 3 : 2);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ReportFormat.class)
+    void exportDetachesResultsAndBlobs(ReportFormat format) throws IOException {
+        Long id = createExecution(LARGE, ExecutionStatus.FAILED);
+
+        exportService.export(executionRepository.findWithProcessById(id).orElseThrow(), format,
+            new ByteArrayOutputStream());
+
+        assertThat(managed(StepExecutionResult.class)).isZero();
+        assertThat(managed(PayloadBlob.class)).isZero();
+    }
+
+    private long viewStatements(Long id) {
+        statistics.clear();
+        TestExecution execution = executionRepository.findWithResultsById(id).orElseThrow();
+        for (StepExecutionResult result : execution.getStepResults()) {
+            assertThat(result.getProcessStep().getStepName()).isNotNull();
+            assertThat(result.getRequestPayload()).isNotNull();
+            assertThat(result.getResponsePayload()).isNotNull();
+        }
+        assertThat(execution.getBusinessProcess().getName()).isNotNull();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long exportStatements(Long id, ReportFormat format) throws IOException {
+        statistics.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(executionRepository.findWithProcessById(id).orElseThrow(), format, out);
+        assertThat(out.size()).isPositive();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long managed(Class<?> type) {
+        return Arrays.stream(entityManager.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal().reentrantSafeEntityEntries())
+            .filter(entry -> type.isInstance(entry.getKey()))
+            .count();
+    }
+
+    /**
+     * An execution of {@code steps} steps, each with its own request and response body;
+     * the last step failed when {@code status} is FAILED. The persistence context is
+     * cleared afterwards so every read goes to the database.
+     */
+    private Long createExecution(int steps, ExecutionStatus status) {
+        BusinessProcess process = testEntityManager.persist(BusinessProcess.builder()
+            .name("Process with " + steps + " steps")
+            .steps(new ArrayList<>())
+            .createdAt(LocalDateTime.now())
+            .build());
+
+        TestExecution execution = testEntityManager.persist(TestExecution.builder()
+            .businessProcess(process)
+            .mode(ExecutionMode.MOCK)
+            .status(status)
+            .startedAt(LocalDateTime.now())
+            .completedAt(LocalDateTime.now())
+            .stepResults(new ArrayList<>())
+            .build());
+
+        List<StepExecutionResult> results = new ArrayList<>();
+        for (int i = 1; i <= steps; i++) {
+            ProcessStep step = testEntityManager.persist(ProcessStep.builder()
+                .businessProcess(process)
+                .stepId("Task_" + i)
+                .stepName("Step " + i)
+                .stepOrder(i)
+                .stepType(StepType.SERVICE_TASK)
+                .apiEndpoint("/accounts/" + i)
+                .httpMethod("POST")
+                .build());
+
+            boolean failed = status == ExecutionStatus.FAILED && i == steps;
+            results.add(StepExecutionResult.builder()
+                .testExecution(execution)
+                .processStep(step)
+                .executionOrder(i)
+                .status(failed ? StepStatus.FAILED : StepStatus.SUCCESS)
+                .requestBlob(blob("request " + i))
+                .responseBlob(blob("response " + i))
+                .httpStatusCode(failed ? 500 : 200)
+                .errorMessage(failed ? "Internal error" : null)
+                .executionTimeMs(10L + i)
+                .executedAt(LocalDateTime.now())
+                .build());
+        }
+        results.forEach(testEntityManager::persist);
+
+        testEntityManager.flush();
+        testEntityManager.clear();
+        return execution.getId();
+    }
+
+    private PayloadBlob blob(String name) {
+        String body = "{\"body\":\"" + name + "\"}";
+        String sha256 = String.format("%064x", ++blobs);
+        return testEntityManager.persist(PayloadBlob.of(sha256, body, body.length(), false, 256));
+    }
+}